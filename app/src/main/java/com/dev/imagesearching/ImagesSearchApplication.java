@@ -2,6 +2,13 @@ package com.dev.imagesearching;
 
 import android.app.Application;
 
+import com.dev.imagesearching.repositories.ImagesDataRepository;
+
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleObserver;
+import androidx.lifecycle.OnLifecycleEvent;
+import androidx.lifecycle.ProcessLifecycleOwner;
+
 /**
  * (c) All rights reserved.
  *
@@ -15,6 +22,14 @@ public class ImagesSearchApplication extends Application {
     public void onCreate() {
         super.onCreate();
         mApplication = this;
+
+        // Writing the buffered comments when the app goes to background, as the process may be killed there.
+        ProcessLifecycleOwner.get().getLifecycle().addObserver(new LifecycleObserver() {
+            @OnLifecycleEvent(Lifecycle.Event.ON_STOP)
+            public void onAppStopped() {
+                ImagesDataRepository.getInstance().flushPendingComments();
+            }
+        });
     }
 
     public static ImagesSearchApplication getApplicationInstance() {
@@ -0,0 +1,76 @@
+package com.dev.imagesearching;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.util.Log;
+
+import com.bumptech.glide.GlideBuilder;
+import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruBitmapPool;
+import com.bumptech.glide.load.engine.cache.InternalCacheDiskCacheFactory;
+import com.bumptech.glide.load.engine.cache.LruResourceCache;
+import com.bumptech.glide.load.engine.executor.GlideExecutor;
+import com.bumptech.glide.module.AppGlideModule;
+
+import androidx.annotation.NonNull;
+
+/**
+ * (c) All rights reserved.
+ *
+ * Glide configuration of the app.
+ *
+ * - Memory cache and bitmap pool are sized from the device memory class, and are smaller on low ram devices.
+ * - Disk cache is bounded, and smaller on low ram devices.
+ * - Decode thread pool is sized to the number of cores.
+ */
+@GlideModule
+public final class ImagesSearchGlideModule extends AppGlideModule {
+
+    private static final String TAG = ImagesSearchGlideModule.class.getSimpleName();
+
+    private static final String IMAGE_DISK_CACHE_DIRECTORY = "image_cache";
+
+    private static final long BYTES_PER_MEGABYTE = 1024L * 1024L;
+
+    // Disk cache sizes for the regular and low ram devices.
+    private static final long IMAGE_DISK_CACHE_SIZE_BYTES = 150L * BYTES_PER_MEGABYTE;
+    private static final long LOW_RAM_IMAGE_DISK_CACHE_SIZE_BYTES = 50L * BYTES_PER_MEGABYTE;
+
+    // Bounds of the decode (source) thread pool.
+    private static final int MIN_SOURCE_THREAD_COUNT = 2;
+    private static final int MAX_SOURCE_THREAD_COUNT = 4;
+
+    @Override
+    public void applyOptions(@NonNull Context context, @NonNull GlideBuilder builder) {
+        ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        boolean isLowRamDevice = activityManager.isLowRamDevice();
+
+        // Heap available to the app, the app is declared with the large heap.
+        boolean isLargeHeap = 0 != (context.getApplicationInfo().flags & ApplicationInfo.FLAG_LARGE_HEAP);
+        long heapSizeBytes = (isLargeHeap ? activityManager.getLargeMemoryClass() : activityManager.getMemoryClass()) * BYTES_PER_MEGABYTE;
+
+        // Decoded images: 1/8th of heap, bitmap pool: 1/10th of heap, halved on low ram devices.
+        long memoryCacheSizeBytes = heapSizeBytes / (isLowRamDevice ? 16 : 8);
+        long bitmapPoolSizeBytes = heapSizeBytes / (isLowRamDevice ? 20 : 10);
+        long diskCacheSizeBytes = isLowRamDevice ? LOW_RAM_IMAGE_DISK_CACHE_SIZE_BYTES : IMAGE_DISK_CACHE_SIZE_BYTES;
+
+        builder.setMemoryCache(new LruResourceCache(memoryCacheSizeBytes));
+        builder.setBitmapPool(new LruBitmapPool(bitmapPoolSizeBytes));
+        builder.setDiskCache(new InternalCacheDiskCacheFactory(context, IMAGE_DISK_CACHE_DIRECTORY, diskCacheSizeBytes));
+
+        // Decoding is CPU bound, so the source threads are bounded by the number of cores.
+        int sourceThreadCount = Math.max(MIN_SOURCE_THREAD_COUNT,
+                Math.min(MAX_SOURCE_THREAD_COUNT, Runtime.getRuntime().availableProcessors()));
+        builder.setSourceExecutor(GlideExecutor.newSourceBuilder().setThreadCount(sourceThreadCount).build());
+        builder.setDiskCacheExecutor(GlideExecutor.newDiskCacheBuilder().setThreadCount(1).build());
+
+        builder.setLogLevel(Log.ERROR);
+    }
+
+    @Override
+    public boolean isManifestParsingEnabled() {
+        // No Glide modules are declared in the manifest.
+        return false;
+    }
+}
@@ -1,5 +1,10 @@
 package com.dev.imagesearching.api;
 
+import com.dev.imagesearching.ImagesSearchApplication;
+
+import java.io.File;
+
+import okhttp3.Cache;
 import okhttp3.OkHttpClient;
 
 import okhttp3.logging.HttpLoggingInterceptor;
@@ -7,6 +12,9 @@ import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
 
 import static com.dev.imagesearching.utils.NetworkConstants.BASE_ENDPOINT_URL;
+import static com.dev.imagesearching.utils.NetworkConstants.SEARCH_PAGE_CACHE_DIRECTORY;
+import static com.dev.imagesearching.utils.NetworkConstants.SEARCH_PAGE_CACHE_MAX_SIZE_BYTES;
+import static com.dev.imagesearching.utils.NetworkConstants.SEARCH_PAGE_CACHE_TTL_SECONDS;
 
 /**
  * (c) All rights are reserved.
@@ -19,6 +27,9 @@ public class ApiClient {
     private static ApiClient sApiClient;
     private static Retrofit sRetrofit;
 
+    // Serves the repeated search pages from disk cache, while revalidating them in background.
+    private SearchPageCacheInterceptor mSearchPageCacheInterceptor;
+
     private ApiClient() {
         prepareRetrofitInstance();
     }
@@ -29,11 +40,25 @@ public class ApiClient {
     private void prepareRetrofitInstance() {
         HttpLoggingInterceptor interceptor = new HttpLoggingInterceptor();
         interceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
-        OkHttpClient httpClient = new OkHttpClient.Builder().addInterceptor(interceptor).build();
+
+        // Bounded on-disk response cache for the gallery search pages.
+        File cacheDirectory = new File(ImagesSearchApplication.getApplicationInstance().getCacheDir(), SEARCH_PAGE_CACHE_DIRECTORY);
+        mSearchPageCacheInterceptor = new SearchPageCacheInterceptor(SEARCH_PAGE_CACHE_TTL_SECONDS);
+
+        OkHttpClient httpClient = new OkHttpClient.Builder()
+                .cache(new Cache(cacheDirectory, SEARCH_PAGE_CACHE_MAX_SIZE_BYTES))
+                .addInterceptor(mSearchPageCacheInterceptor)
+                .addNetworkInterceptor(mSearchPageCacheInterceptor.getNetworkInterceptor())
+                .addInterceptor(interceptor)
+                .build();
+
+        // Background revalidations are made through the same client, so that they update the same cache.
+        mSearchPageCacheInterceptor.attachCallFactory(httpClient);
 
         sRetrofit = new Retrofit.Builder()
                 .baseUrl(BASE_ENDPOINT_URL)
                 .client(httpClient)
+                .addConverterFactory(ProjectedImagesResponseConverterFactory.create()) // Streaming converter for the @ProjectedResponse calls, decodes only the fields used by the grid.
                 .addConverterFactory(GsonConverterFactory.create()) // Adding the GSON converter, response will be mapped GSON ->> POJO.
                 .build();
     }
@@ -57,4 +82,11 @@ public class ApiClient {
     public RemoteApiInterface getApiInterface() {
         return sRetrofit.create(RemoteApiInterface.class);
     }
+
+    /**
+     * To get the search page cache, which exposes the hit, miss and revalidation counts.
+     */
+    public SearchPageCacheInterceptor getSearchPageCache() {
+        return mSearchPageCacheInterceptor;
+    }
 }
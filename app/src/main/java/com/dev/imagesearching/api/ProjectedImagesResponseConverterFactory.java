@@ -0,0 +1,349 @@
+package com.dev.imagesearching.api;
+
+import com.dev.imagesearching.models.Data;
+import com.dev.imagesearching.models.ImageDetails;
+import com.dev.imagesearching.models.ImagesResponse;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+/**
+ * (c) All rights reserved.
+ *
+ * Retrofit converter factory to decode the {@link ImagesResponse} in a streaming manner.
+ *
+ * For the calls marked with {@link ProjectedResponse}, the response body is read incrementally with {@link JsonReader}
+ * and only the projected fields of each {@link Data} are materialized, rest of the fields are skipped without allocating them.
+ * For other calls it returns null, so that the next converter (Gson) decodes the full model.
+ */
+public class ProjectedImagesResponseConverterFactory extends Converter.Factory {
+
+    public static ProjectedImagesResponseConverterFactory create() {
+        return new ProjectedImagesResponseConverterFactory();
+    }
+
+    private ProjectedImagesResponseConverterFactory() {
+    }
+
+    @Override
+    public Converter<ResponseBody, ?> responseBodyConverter(@NonNull Type type, @NonNull Annotation[] annotations, @NonNull Retrofit retrofit) {
+        if (ImagesResponse.class == type && isProjected(annotations)) {
+            return new ProjectedImagesResponseConverter();
+        }
+        return null;
+    }
+
+    private static boolean isProjected(@NonNull Annotation[] annotations) {
+        for (Annotation annotation : annotations) {
+            if (annotation instanceof ProjectedResponse) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Converter which reads only the projected fields of the images response.
+     */
+    private static class ProjectedImagesResponseConverter implements Converter<ResponseBody, ImagesResponse> {
+
+        @Override
+        public ImagesResponse convert(@NonNull ResponseBody responseBody) throws IOException {
+            try (JsonReader jsonReader = new JsonReader(responseBody.charStream())) {
+                return readImagesResponse(jsonReader);
+            } finally {
+                responseBody.close();
+            }
+        }
+
+        private ImagesResponse readImagesResponse(@NonNull JsonReader jsonReader) throws IOException {
+            ImagesResponse imagesResponse = new ImagesResponse();
+
+            jsonReader.beginObject();
+            while (jsonReader.hasNext()) {
+                switch (jsonReader.nextName()) {
+
+                    case "success":
+                        imagesResponse.setSuccess(jsonReader.nextBoolean());
+                        break;
+
+                    case "status":
+                        imagesResponse.setStatus(jsonReader.nextInt());
+                        break;
+
+                    case "data":
+                        imagesResponse.setDataList(readDataList(jsonReader));
+                        break;
+
+                    default:
+                        jsonReader.skipValue();
+                        break;
+                }
+            }
+            jsonReader.endObject();
+
+            return imagesResponse;
+        }
+
+        private List<Data> readDataList(@NonNull JsonReader jsonReader) throws IOException {
+            if (JsonToken.BEGIN_ARRAY != jsonReader.peek()) {
+                jsonReader.skipValue();
+                return null;
+            }
+
+            List<Data> dataList = new ArrayList<>();
+
+            jsonReader.beginArray();
+            while (jsonReader.hasNext()) {
+                dataList.add(readData(jsonReader));
+            }
+            jsonReader.endArray();
+
+            return dataList;
+        }
+
+        /**
+         * Reads the fields used by the images grid, i.e. id, title, cover, the cover dimensions, section, topic and account url.
+         * Along with the animation details of the cover image, kept as the only item of the images list.
+         * Description and the tag names are read for the local search index.
+         */
+        private Data readData(@NonNull JsonReader jsonReader) throws IOException {
+            Data data = new Data();
+
+            // A single image (not album) carries its own animation details.
+            ImageDetails itemImageDetails = new ImageDetails();
+            List<ImageDetails> albumImageDetailsList = null;
+
+            jsonReader.beginObject();
+            while (jsonReader.hasNext()) {
+                String name = jsonReader.nextName();
+
+                if (JsonToken.NULL == jsonReader.peek()) {
+                    jsonReader.nextNull();
+                    continue;
+                }
+
+                switch (name) {
+
+                    case "id":
+                        data.setId(jsonReader.nextString());
+                        break;
+
+                    case "title":
+                        data.setTitle(jsonReader.nextString());
+                        break;
+
+                    case "cover":
+                        data.setCover(jsonReader.nextString());
+                        break;
+
+                    case "cover_width":
+                        data.setCoverWidth(jsonReader.nextInt());
+                        break;
+
+                    case "cover_height":
+                        data.setCoverHeight(jsonReader.nextInt());
+                        break;
+
+                    case "section":
+                        data.setSection(jsonReader.nextString());
+                        break;
+
+                    case "topic":
+                        data.setTopic(jsonReader.nextString());
+                        break;
+
+                    case "account_url":
+                        data.setAccountUrl(jsonReader.nextString());
+                        break;
+
+                    case "description":
+                        data.setDescription(jsonReader.nextString());
+                        break;
+
+                    case "tags":
+                        data.setTags(readTagNames(jsonReader));
+                        break;
+
+                    case "is_album":
+                        data.setIsAlbum(jsonReader.nextBoolean());
+                        break;
+
+                    case "images":
+                        albumImageDetailsList = readCoverImageDetailsCandidates(jsonReader, data.getCover());
+                        break;
+
+                    default:
+                        // Skipping the nested arrays/ objects and other fields, without materializing them.
+                        if (!readImageDetailsField(name, jsonReader, itemImageDetails)) {
+                            jsonReader.skipValue();
+                        }
+                        break;
+                }
+            }
+            jsonReader.endObject();
+
+            if (null != albumImageDetailsList) {
+                data.setImages(findCoverImageDetails(data.getCover(), albumImageDetailsList));
+            } else if (!Boolean.TRUE.equals(data.getIsAlbum())) {
+                // Single image is its own cover.
+                itemImageDetails.setId(data.getId());
+                data.setImages(Collections.singletonList(itemImageDetails));
+                if (null == data.getCover()) {
+                    data.setCover(data.getId());
+                    data.setCoverWidth(itemImageDetails.getWidth());
+                    data.setCoverHeight(itemImageDetails.getHeight());
+                }
+            }
+
+            return data;
+        }
+
+        /**
+         * Reads only the names of the tags, rest of the tag fields are skipped.
+         */
+        private List<Object> readTagNames(@NonNull JsonReader jsonReader) throws IOException {
+            if (JsonToken.BEGIN_ARRAY != jsonReader.peek()) {
+                jsonReader.skipValue();
+                return null;
+            }
+
+            List<Object> tagNames = new ArrayList<>();
+
+            jsonReader.beginArray();
+            while (jsonReader.hasNext()) {
+                if (JsonToken.BEGIN_OBJECT != jsonReader.peek()) {
+                    jsonReader.skipValue();
+                    continue;
+                }
+
+                jsonReader.beginObject();
+                while (jsonReader.hasNext()) {
+                    String name = jsonReader.nextName();
+
+                    if ("name".equals(name) && JsonToken.STRING == jsonReader.peek()) {
+                        tagNames.add(jsonReader.nextString());
+                    } else {
+                        jsonReader.skipValue();
+                    }
+                }
+                jsonReader.endObject();
+            }
+            jsonReader.endArray();
+
+            return tagNames;
+        }
+
+        /**
+         * Reads the images of an album, keeping only the details which may belong to its cover image.
+         *
+         * If the cover is already read, only the entry of the cover is kept, the other entries are skipped
+         * as soon as their id is read, and the entries after the cover are skipped whole.
+         * Otherwise (images listed before the cover) only the animated entries are kept, as the details of a still cover
+         * are not used by the grid, and the cover is picked among them once it is read.
+         */
+        private List<ImageDetails> readCoverImageDetailsCandidates(@NonNull JsonReader jsonReader, final String coverID)
+                throws IOException {
+            if (JsonToken.BEGIN_ARRAY != jsonReader.peek()) {
+                jsonReader.skipValue();
+                return null;
+            }
+
+            List<ImageDetails> candidates = new ArrayList<>();
+
+            jsonReader.beginArray();
+            while (jsonReader.hasNext()) {
+                if (null != coverID && !candidates.isEmpty()) {
+                    // Cover is found, rest of the images are not needed.
+                    jsonReader.skipValue();
+                    continue;
+                }
+
+                ImageDetails imageDetails = new ImageDetails();
+                boolean isCandidate = true;
+
+                jsonReader.beginObject();
+                while (jsonReader.hasNext()) {
+                    String name = jsonReader.nextName();
+
+                    if (!isCandidate || JsonToken.NULL == jsonReader.peek()) {
+                        jsonReader.skipValue();
+                    } else if ("id".equals(name)) {
+                        imageDetails.setId(jsonReader.nextString());
+                        isCandidate = null == coverID || coverID.equals(imageDetails.getId());
+                    } else if (!readImageDetailsField(name, jsonReader, imageDetails)) {
+                        jsonReader.skipValue();
+                    }
+                }
+                jsonReader.endObject();
+
+                if (null != coverID ? coverID.equals(imageDetails.getId()) : Boolean.TRUE.equals(imageDetails.getAnimated())) {
+                    candidates.add(imageDetails);
+                }
+            }
+            jsonReader.endArray();
+
+            return candidates;
+        }
+
+        /**
+         * Reads the animation and dimension fields of an image.
+         * @return false if the field is not projected, it must be skipped by the caller.
+         */
+        private boolean readImageDetailsField(@NonNull String name, @NonNull JsonReader jsonReader,
+                                              @NonNull ImageDetails imageDetails) throws IOException {
+            switch (name) {
+
+                case "type":
+                    imageDetails.setType(jsonReader.nextString());
+                    return true;
+
+                case "animated":
+                    imageDetails.setAnimated(jsonReader.nextBoolean());
+                    return true;
+
+                case "has_sound":
+                    imageDetails.setHasSound(jsonReader.nextBoolean());
+                    return true;
+
+                case "mp4":
+                    imageDetails.setMp4(jsonReader.nextString());
+                    return true;
+
+                case "width":
+                    imageDetails.setWidth(jsonReader.nextInt());
+                    return true;
+
+                case "height":
+                    imageDetails.setHeight(jsonReader.nextInt());
+                    return true;
+
+                default:
+                    return false;
+            }
+        }
+
+        /**
+         * Only the cover image of an album is displayed, the details of other candidates are dropped.
+         */
+        private List<ImageDetails> findCoverImageDetails(final String coverID, @NonNull List<ImageDetails> imageDetailsList) {
+            for (ImageDetails imageDetails : imageDetailsList) {
+                if (null != coverID && coverID.equals(imageDetails.getId())) {
+                    return Collections.singletonList(imageDetails);
+                }
+            }
+            return null;
+        }
+    }
+}
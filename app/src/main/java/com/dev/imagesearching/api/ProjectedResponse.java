@@ -0,0 +1,21 @@
+package com.dev.imagesearching.api;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * (c) All rights reserved.
+ *
+ * Marks the api call whose response should be decoded in projection mode,
+ * i.e. only the fields required by the images grid are materialized.
+ *
+ * Calls without this annotation are decoded into the full model by Gson.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ProjectedResponse {
+}
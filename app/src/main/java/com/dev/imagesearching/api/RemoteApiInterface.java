@@ -21,6 +21,8 @@ import static com.dev.imagesearching.utils.NetworkConstants.IMGUR_API_VERSION;
 
 public interface RemoteApiInterface {
 
+    // Projection mode, only the fields required by the images grid are decoded.
+    @ProjectedResponse
     @GET("/" + IMGUR_API_VERSION + IMAGE_PATH_URI)
     Call<ImagesResponse> getImagesList(@HeaderMap Map<String, String> headers,
                                        @Path("pageNo") int pageNo,
@@ -0,0 +1,218 @@
+package com.dev.imagesearching.api;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import androidx.annotation.NonNull;
+import okhttp3.CacheControl;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import okio.Okio;
+
+import static com.dev.imagesearching.utils.NetworkConstants.IMGUR_API_VERSION;
+
+/**
+ * (c) All rights reserved.
+ *
+ * Serves the gallery search pages from the OkHttp disk cache with stale-while-revalidate semantics.
+ *
+ * - Within the freshness TTL, the cached page is returned at once and a background revalidation refreshes it.
+ * - The revalidation is a conditional request (If-None-Match/ If-Modified-Since) whenever the server has sent an ETag/ Last-Modified.
+ * - Outside the TTL or on cache miss, the request goes over the network as usual.
+ */
+public class SearchPageCacheInterceptor implements Interceptor {
+
+    private static final String TAG = SearchPageCacheInterceptor.class.getSimpleName();
+
+    // Internal marker header for the background revalidation requests, it is never sent to the server.
+    private static final String REVALIDATION_HEADER = "X-Search-Page-Revalidation";
+
+    private static final String SEARCH_PAGE_PATH_PREFIX = "/" + IMGUR_API_VERSION + "/gallery/search/";
+
+    private static final int HTTP_NOT_MODIFIED = 304;
+    private static final int HTTP_GATEWAY_TIMEOUT = 504;
+
+    private final int mFreshnessTtlSeconds;
+
+    // Used to issue the background revalidation calls, attached once the client is built.
+    private Call.Factory mCallFactory;
+
+    // Urls of the pages under revalidation, to avoid the duplicate background calls.
+    private final Set<String> mRevalidatingUrls = new HashSet<>();
+
+    // Counters to tune the cache size and TTL.
+    private final AtomicLong mHitCount = new AtomicLong();
+    private final AtomicLong mMissCount = new AtomicLong();
+    private final AtomicLong mRevalidationCount = new AtomicLong();
+    private final AtomicLong mNotModifiedCount = new AtomicLong();
+
+    /**
+     * Network interceptor which makes the search pages cacheable for the freshness TTL,
+     * irrespective of the caching headers sent by the server.
+     */
+    private final Interceptor mNetworkInterceptor = new Interceptor() {
+        @NonNull
+        @Override
+        public Response intercept(@NonNull Chain chain) throws IOException {
+            Request request = chain.request();
+            Response networkResponse = chain.proceed(request);
+
+            if (!isSearchPageRequest(request)) {
+                return networkResponse;
+            }
+
+            if (HTTP_NOT_MODIFIED == networkResponse.code()) {
+                mNotModifiedCount.incrementAndGet();
+            } else if (!networkResponse.isSuccessful()) {
+                return networkResponse;
+            }
+
+            return networkResponse.newBuilder()
+                    .removeHeader("Pragma")
+                    .header("Cache-Control", "max-age=" + mFreshnessTtlSeconds)
+                    .build();
+        }
+    };
+
+    public SearchPageCacheInterceptor(final int freshnessTtlSeconds) {
+        mFreshnessTtlSeconds = freshnessTtlSeconds;
+    }
+
+    /**
+     * To attach the client, which will be used to make the background revalidation calls.
+     */
+    public void attachCallFactory(@NonNull final Call.Factory callFactory) {
+        mCallFactory = callFactory;
+    }
+
+    /**
+     * Interceptor to be added as network interceptor on the same client.
+     */
+    public Interceptor getNetworkInterceptor() {
+        return mNetworkInterceptor;
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+
+        if (!isSearchPageRequest(request)) {
+            return chain.proceed(request);
+        }
+
+        // Background revalidation, treating the cached page as stale so that OkHttp sends the conditional request.
+        if (null != request.header(REVALIDATION_HEADER)) {
+            return chain.proceed(request.newBuilder()
+                    .removeHeader(REVALIDATION_HEADER)
+                    .cacheControl(new CacheControl.Builder().maxAge(0, TimeUnit.SECONDS).build())
+                    .build());
+        }
+
+        // Looking up the fresh cached page only, OkHttp replies with 504 if it is not available.
+        Response cachedResponse = chain.proceed(request.newBuilder()
+                .cacheControl(new CacheControl.Builder()
+                        .onlyIfCached()
+                        .maxAge(mFreshnessTtlSeconds, TimeUnit.SECONDS)
+                        .build())
+                .build());
+
+        if (HTTP_GATEWAY_TIMEOUT != cachedResponse.code()) {
+            mHitCount.incrementAndGet();
+            revalidateInBackground(request);
+            return cachedResponse;
+        }
+
+        cachedResponse.close();
+        mMissCount.incrementAndGet();
+
+        return chain.proceed(request);
+    }
+
+    /**
+     * To refresh the cached page in background, the refreshed page will be served by the next request.
+     */
+    private void revalidateInBackground(@NonNull final Request request) {
+        if (null == mCallFactory) {
+            return;
+        }
+
+        final String url = request.url().toString();
+        synchronized (mRevalidatingUrls) {
+            if (!mRevalidatingUrls.add(url)) {
+                return;
+            }
+        }
+
+        mRevalidationCount.incrementAndGet();
+
+        mCallFactory.newCall(request.newBuilder().header(REVALIDATION_HEADER, "true").build()).enqueue(new Callback() {
+            @Override
+            public void onFailure(@NonNull Call call, @NonNull IOException e) {
+                Log.w(TAG, "Search page revalidation failed: " + e.getMessage());
+                finishRevalidation(url);
+            }
+
+            @Override
+            public void onResponse(@NonNull Call call, @NonNull Response response) {
+                // Body is consumed only to let the cache write the refreshed entry.
+                try {
+                    if (null != response.body()) {
+                        response.body().source().readAll(Okio.blackhole());
+                    }
+                } catch (IOException e) {
+                    Log.w(TAG, "Search page revalidation failed: " + e.getMessage());
+                } finally {
+                    response.close();
+                    finishRevalidation(url);
+                }
+            }
+        });
+    }
+
+    private void finishRevalidation(@NonNull final String url) {
+        synchronized (mRevalidatingUrls) {
+            mRevalidatingUrls.remove(url);
+        }
+    }
+
+    private static boolean isSearchPageRequest(@NonNull final Request request) {
+        return "GET".equals(request.method()) && request.url().encodedPath().startsWith(SEARCH_PAGE_PATH_PREFIX);
+    }
+
+    /**
+     * Number of search pages served from the cache.
+     */
+    public long getHitCount() {
+        return mHitCount.get();
+    }
+
+    /**
+     * Number of search pages which were not available fresh in the cache.
+     */
+    public long getMissCount() {
+        return mMissCount.get();
+    }
+
+    /**
+     * Number of background revalidations issued.
+     */
+    public long getRevalidationCount() {
+        return mRevalidationCount.get();
+    }
+
+    /**
+     * Number of revalidations answered with 304, i.e. the cached page was still valid.
+     */
+    public long getNotModifiedCount() {
+        return mNotModifiedCount.get();
+    }
+}
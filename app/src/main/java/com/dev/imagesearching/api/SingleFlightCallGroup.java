@@ -0,0 +1,148 @@
+package com.dev.imagesearching.api;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import androidx.annotation.NonNull;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * (c) All rights reserved.
+ *
+ * Coalesces the identical network requests into a single in-flight call.
+ *
+ * While a call for a given key is running, any other request for the same key is attached to it
+ * instead of going over the network again, and every attached callback receives the same result.
+ */
+public class SingleFlightCallGroup<T> {
+
+    /**
+     * Lazily creates the network call, only invoked when no call is in flight for the key.
+     */
+    public interface CallFactory<T> {
+        Call<T> createCall();
+    }
+
+    // In-flight calls, keyed by the request key.
+    private final Map<String, InFlightCall<T>> mInFlightCalls = new HashMap<>();
+
+    // Counters to track how much upstream traffic is saved.
+    private final AtomicLong mIssuedCallCount = new AtomicLong();
+    private final AtomicLong mCoalescedCallCount = new AtomicLong();
+
+    /**
+     * To execute the call for the given key, or join the one which is already in flight.
+     *
+     * @param key         identifies the identical requests.
+     * @param callFactory used to create the call if nothing is in flight for the key.
+     * @param callback    will be notified with the shared result, the same callback instance is notified only once per call.
+     * @return true if a new call has been issued, false if the request was coalesced into an existing one.
+     */
+    public boolean execute(@NonNull final String key, @NonNull final CallFactory<T> callFactory, @NonNull final Callback<T> callback) {
+
+        final InFlightCall<T> inFlightCall;
+
+        synchronized (mInFlightCalls) {
+            InFlightCall<T> existingCall = mInFlightCalls.get(key);
+
+            if (null != existingCall) {
+                // Same request is already running, attaching the callback to it.
+                if (!existingCall.callbacks.contains(callback)) {
+                    existingCall.callbacks.add(callback);
+                }
+                mCoalescedCallCount.incrementAndGet();
+                return false;
+            }
+
+            inFlightCall = new InFlightCall<>(callFactory.createCall());
+            inFlightCall.callbacks.add(callback);
+            mInFlightCalls.put(key, inFlightCall);
+        }
+
+        mIssuedCallCount.incrementAndGet();
+
+        inFlightCall.call.enqueue(new Callback<T>() {
+            @Override
+            public void onResponse(@NonNull Call<T> call, @NonNull Response<T> response) {
+                for (Callback<T> attachedCallback : complete(key, inFlightCall)) {
+                    attachedCallback.onResponse(call, response);
+                }
+            }
+
+            @Override
+            public void onFailure(@NonNull Call<T> call, @NonNull Throwable t) {
+                for (Callback<T> attachedCallback : complete(key, inFlightCall)) {
+                    attachedCallback.onFailure(call, t);
+                }
+            }
+        });
+
+        return true;
+    }
+
+    /**
+     * To check if a call is running for the given key.
+     */
+    public boolean isInFlight(@NonNull final String key) {
+        synchronized (mInFlightCalls) {
+            return mInFlightCalls.containsKey(key);
+        }
+    }
+
+    /**
+     * To cancel the in-flight call for the given key.
+     * Attached callbacks are notified with the cancellation failure, and the next request for the key issues a fresh call.
+     */
+    public void cancel(@NonNull final String key) {
+        InFlightCall<T> inFlightCall;
+
+        synchronized (mInFlightCalls) {
+            inFlightCall = mInFlightCalls.remove(key);
+        }
+
+        if (null != inFlightCall) {
+            inFlightCall.call.cancel();
+        }
+    }
+
+    /**
+     * Number of calls which were actually sent over the network.
+     */
+    public long getIssuedCallCount() {
+        return mIssuedCallCount.get();
+    }
+
+    /**
+     * Number of requests which were served by joining an already running call.
+     */
+    public long getCoalescedCallCount() {
+        return mCoalescedCallCount.get();
+    }
+
+    /**
+     * Removes the finished call, so that the next request for the same key goes to the network again.
+     * @return callbacks attached to the finished call.
+     */
+    private List<Callback<T>> complete(@NonNull final String key, @NonNull final InFlightCall<T> inFlightCall) {
+        synchronized (mInFlightCalls) {
+            if (mInFlightCalls.get(key) == inFlightCall) {
+                mInFlightCalls.remove(key);
+            }
+            return new ArrayList<>(inFlightCall.callbacks);
+        }
+    }
+
+    private static class InFlightCall<T> {
+        final Call<T> call;
+        final List<Callback<T>> callbacks = new ArrayList<>();
+
+        InFlightCall(@NonNull final Call<T> call) {
+            this.call = call;
+        }
+    }
+}
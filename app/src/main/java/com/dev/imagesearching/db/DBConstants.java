@@ -9,8 +9,26 @@ public interface DBConstants {
 
     // Current database version.
     // This must be updated when there is any change happens with database schema.
-    int CURRENT_DATABASE_VERSION = 1;
+    int CURRENT_DATABASE_VERSION = 4;
 
     // Database name
     String DATABASE_NAME = "Image_Search_DB";
+
+    // Max. number of the cached search result items, the oldest pages are pruned beyond it.
+    int MAX_CACHED_SEARCH_RESULT_ITEMS = 2000;
+
+    // Max. age of a cached search result page, older pages are pruned.
+    long MAX_CACHED_SEARCH_RESULT_AGE_MILLIS = 24L * 60L * 60L * 1000L;
+
+    // Cache is pruned once this many search result items are written since the last prune, so it may exceed its max. by this much.
+    int CACHED_SEARCH_RESULT_PRUNE_INTERVAL_ITEMS = 200;
+
+    // Max. number of the images in the local search index, the least recently received are pruned beyond it.
+    int MAX_INDEXED_IMAGES = 5000;
+
+    // Index is pruned once this many images are written since the last prune, so it may exceed its max. by this much.
+    int INDEXED_IMAGES_PRUNE_INTERVAL = 1000;
+
+    // Max. number of the local images matched for a query, by the local search index or by refining the previous query.
+    int MAX_LOCAL_MATCHES = 200;
 }
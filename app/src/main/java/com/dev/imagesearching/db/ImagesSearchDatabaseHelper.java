@@ -3,11 +3,20 @@ package com.dev.imagesearching.db;
 import android.content.Context;
 
 import com.dev.imagesearching.db.dao.ImageCommentsDao;
+import com.dev.imagesearching.db.dao.SearchIndexDao;
+import com.dev.imagesearching.db.dao.SearchResultsDao;
 import com.dev.imagesearching.db.entities.ImageCommentEntity;
+import com.dev.imagesearching.db.entities.IndexedImageEntity;
+import com.dev.imagesearching.db.entities.IndexedImageFtsEntity;
+import com.dev.imagesearching.db.entities.SearchResultItemEntity;
+import com.dev.imagesearching.db.entities.SearchResultPageEntity;
 
+import androidx.annotation.NonNull;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
 
 import static com.dev.imagesearching.db.DBConstants.CURRENT_DATABASE_VERSION;
 import static com.dev.imagesearching.db.DBConstants.DATABASE_NAME;
@@ -17,13 +26,78 @@ import static com.dev.imagesearching.db.DBConstants.DATABASE_NAME;
  *
  * Singleton database helper class.
  */
-@Database(entities = {ImageCommentEntity.class}, version = CURRENT_DATABASE_VERSION, exportSchema = false)
+@Database(entities = {ImageCommentEntity.class, SearchResultPageEntity.class, SearchResultItemEntity.class,
+        IndexedImageEntity.class, IndexedImageFtsEntity.class},
+        version = CURRENT_DATABASE_VERSION, exportSchema = false)
 public abstract class ImagesSearchDatabaseHelper extends RoomDatabase {
 
     public abstract ImageCommentsDao imageCommentsDao ();
 
+    public abstract SearchResultsDao searchResultsDao ();
+
+    public abstract SearchIndexDao searchIndexDao ();
+
     private static volatile ImagesSearchDatabaseHelper sDatabaseInstance;
 
+    // Version 2 adds the search results cache, the stored comments are kept as they are.
+    static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `search_result_page_table` ("
+                    + "`normalizedQuery` TEXT NOT NULL, `pageNo` INTEGER NOT NULL, "
+                    + "`fetchedAtMillis` INTEGER NOT NULL, `itemCount` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`normalizedQuery`, `pageNo`))");
+            database.execSQL("CREATE TABLE IF NOT EXISTS `search_result_item_table` ("
+                    + "`normalizedQuery` TEXT NOT NULL, `pageNo` INTEGER NOT NULL, `position` INTEGER NOT NULL, "
+                    + "`imageID` TEXT, `title` TEXT, `cover` TEXT, "
+                    + "`coverWidth` INTEGER NOT NULL, `coverHeight` INTEGER NOT NULL, "
+                    + "`section` TEXT, `topic` TEXT, `accountUrl` TEXT, "
+                    + "`isAnimated` INTEGER NOT NULL, `hasSound` INTEGER NOT NULL, `videoUrl` TEXT, "
+                    + "PRIMARY KEY(`normalizedQuery`, `pageNo`, `position`))");
+        }
+    };
+
+    // Version 3 adds the local full-text search index, with the triggers which keep it in sync with its content table.
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `indexed_image_table` ("
+                    + "`imageID` TEXT NOT NULL, `title` TEXT, `description` TEXT, `section` TEXT, `tags` TEXT, "
+                    + "`cover` TEXT, `coverWidth` INTEGER NOT NULL, `coverHeight` INTEGER NOT NULL, "
+                    + "`topic` TEXT, `accountUrl` TEXT, "
+                    + "`isAnimated` INTEGER NOT NULL, `hasSound` INTEGER NOT NULL, `videoUrl` TEXT, "
+                    + "`indexedAtMillis` INTEGER NOT NULL, PRIMARY KEY(`imageID`))");
+            database.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `indexed_image_fts_table` USING FTS4("
+                    + "`title` TEXT, `description` TEXT, `section` TEXT, `tags` TEXT, "
+                    + "tokenize=unicode61, content=`indexed_image_table`)");
+
+            String ftsColumns = "`title`, `description`, `section`, `tags`";
+            String newFtsValues = "NEW.`title`, NEW.`description`, NEW.`section`, NEW.`tags`";
+            database.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_indexed_image_fts_table_BEFORE_UPDATE "
+                    + "BEFORE UPDATE ON `indexed_image_table` BEGIN "
+                    + "DELETE FROM `indexed_image_fts_table` WHERE `docid`=OLD.`rowid`; END");
+            database.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_indexed_image_fts_table_BEFORE_DELETE "
+                    + "BEFORE DELETE ON `indexed_image_table` BEGIN "
+                    + "DELETE FROM `indexed_image_fts_table` WHERE `docid`=OLD.`rowid`; END");
+            database.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_indexed_image_fts_table_AFTER_UPDATE "
+                    + "AFTER UPDATE ON `indexed_image_table` BEGIN "
+                    + "INSERT INTO `indexed_image_fts_table`(`docid`, " + ftsColumns + ") VALUES (NEW.`rowid`, " + newFtsValues + "); END");
+            database.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_indexed_image_fts_table_AFTER_INSERT "
+                    + "AFTER INSERT ON `indexed_image_table` BEGIN "
+                    + "INSERT INTO `indexed_image_fts_table`(`docid`, " + ftsColumns + ") VALUES (NEW.`rowid`, " + newFtsValues + "); END");
+        }
+    };
+
+    // Version 4 keeps the description and the tags of the cached search result items, for refining their query.
+    // The items cached before are kept, without these.
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE `search_result_item_table` ADD COLUMN `description` TEXT");
+            database.execSQL("ALTER TABLE `search_result_item_table` ADD COLUMN `tags` TEXT");
+        }
+    };
+
     public static ImagesSearchDatabaseHelper getsDatabaseInstance (final Context context) {
         if (null == sDatabaseInstance) {
 
@@ -31,6 +105,9 @@ public abstract class ImagesSearchDatabaseHelper extends RoomDatabase {
                 if (null == sDatabaseInstance) {
                     sDatabaseInstance = Room.databaseBuilder(context.getApplicationContext(),
                             ImagesSearchDatabaseHelper.class, DATABASE_NAME)
+                            .addMigrations(MIGRATION_1_2, MIGRATION_2_3, MIGRATION_3_4)
+                            // Readers work on the last committed snapshot, so they never wait on the writes.
+                            .setJournalMode(JournalMode.WRITE_AHEAD_LOGGING)
                             .build();
                 }
             }
@@ -2,6 +2,8 @@ package com.dev.imagesearching.db.dao;
 
 import com.dev.imagesearching.db.entities.ImageCommentEntity;
 
+import java.util.List;
+
 import androidx.annotation.NonNull;
 import androidx.room.Dao;
 import androidx.room.Insert;
@@ -16,9 +18,10 @@ import androidx.room.Query;
 @Dao
 public interface ImageCommentsDao {
 
+    // Adds all the comments in a single transaction.
     @Insert (onConflict = OnConflictStrategy.REPLACE)
-    long addComment (ImageCommentEntity entity);
+    long[] addComments (List<ImageCommentEntity> entities);
 
-    @Query("SELECT * FROM image_comment_table WHERE imageID = :imageID")
-    ImageCommentEntity retrieveExistingComment (@NonNull final String imageID);
+    @Query("SELECT * FROM image_comment_table WHERE imageID IN (:imageIDs)")
+    List<ImageCommentEntity> retrieveExistingComments (@NonNull final List<String> imageIDs);
 }
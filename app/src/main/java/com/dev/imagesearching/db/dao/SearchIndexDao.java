@@ -0,0 +1,57 @@
+package com.dev.imagesearching.db.dao;
+
+import com.dev.imagesearching.db.entities.IndexedImageEntity;
+
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+import androidx.room.Update;
+
+/**
+ * (c) All rights reserved.
+ *
+ * Set of SQL statements required to maintain and query the local full-text search index.
+ */
+@Dao
+public abstract class SearchIndexDao {
+
+    // Images are never replaced, as the replace doesn't run the delete triggers which keep the full-text index in sync.
+    @Insert (onConflict = OnConflictStrategy.IGNORE)
+    abstract long[] insertImages (List<IndexedImageEntity> imageEntities);
+
+    @Update
+    abstract void updateImage (IndexedImageEntity imageEntity);
+
+    // Sorts every indexed image, so it is run once enough images are written rather than with every batch.
+    @Query("DELETE FROM indexed_image_table WHERE imageID NOT IN"
+            + " (SELECT imageID FROM indexed_image_table ORDER BY indexedAtMillis DESC LIMIT :maxImages)")
+    public abstract int deleteLeastRecentlyIndexed (final int maxImages);
+
+    /**
+     * @param matchQuery full-text query in the FTS4 syntax, e.g. "cat* sleep*".
+     */
+    @Query("SELECT indexed_image_table.* FROM indexed_image_table"
+            + " JOIN indexed_image_fts_table ON indexed_image_table.rowid = indexed_image_fts_table.docid"
+            + " WHERE indexed_image_fts_table MATCH :matchQuery"
+            + " ORDER BY indexed_image_table.indexedAtMillis DESC LIMIT :limit")
+    public abstract List<IndexedImageEntity> findMatches (@NonNull final String matchQuery, final int limit);
+
+    /**
+     * To index the batch of images in a single transaction, the already indexed images are updated.
+     */
+    @Transaction
+    public void indexImages (@NonNull final List<IndexedImageEntity> imageEntities) {
+        long[] insertedRowIds = insertImages(imageEntities);
+
+        for (int index = 0; index < insertedRowIds.length; index++) {
+            if (-1L == insertedRowIds[index]) {
+                updateImage(imageEntities.get(index));
+            }
+        }
+    }
+}
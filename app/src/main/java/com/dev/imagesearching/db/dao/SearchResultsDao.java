@@ -0,0 +1,82 @@
+package com.dev.imagesearching.db.dao;
+
+import com.dev.imagesearching.db.entities.SearchResultItemEntity;
+import com.dev.imagesearching.db.entities.SearchResultPageEntity;
+
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+/**
+ * (c) All rights reserved.
+ *
+ * Set of SQL statements required to cache the search result pages.
+ */
+@Dao
+public abstract class SearchResultsDao {
+
+    @Query("SELECT * FROM search_result_page_table WHERE normalizedQuery = :normalizedQuery AND pageNo = :pageNo")
+    public abstract SearchResultPageEntity retrievePage (@NonNull final String normalizedQuery, final int pageNo);
+
+    @Query("SELECT * FROM search_result_item_table WHERE normalizedQuery = :normalizedQuery AND pageNo = :pageNo ORDER BY position")
+    public abstract List<SearchResultItemEntity> retrievePageItems (@NonNull final String normalizedQuery, final int pageNo);
+
+    @Insert (onConflict = OnConflictStrategy.REPLACE)
+    abstract void insertPage (SearchResultPageEntity pageEntity);
+
+    @Insert (onConflict = OnConflictStrategy.REPLACE)
+    abstract void insertItems (List<SearchResultItemEntity> itemEntities);
+
+    @Query("DELETE FROM search_result_item_table WHERE normalizedQuery = :normalizedQuery AND pageNo = :pageNo")
+    abstract void deletePageItems (@NonNull final String normalizedQuery, final int pageNo);
+
+    @Query("SELECT * FROM search_result_page_table ORDER BY fetchedAtMillis DESC")
+    abstract List<SearchResultPageEntity> retrievePagesNewestFirst ();
+
+    @Query("DELETE FROM search_result_page_table WHERE normalizedQuery = :normalizedQuery AND pageNo = :pageNo")
+    abstract void deletePage (@NonNull final String normalizedQuery, final int pageNo);
+
+    @Query("DELETE FROM search_result_page_table WHERE fetchedAtMillis < :minFetchedAtMillis")
+    abstract int deletePagesFetchedBefore (final long minFetchedAtMillis);
+
+    @Query("DELETE FROM search_result_item_table WHERE NOT EXISTS (SELECT 1 FROM search_result_page_table AS page"
+            + " WHERE page.normalizedQuery = search_result_item_table.normalizedQuery"
+            + " AND page.pageNo = search_result_item_table.pageNo)")
+    abstract int deleteOrphanItems ();
+
+    /**
+     * To store the page, the items of the previously cached copy of the page are replaced.
+     */
+    @Transaction
+    public void replacePage (@NonNull final SearchResultPageEntity pageEntity, @NonNull final List<SearchResultItemEntity> itemEntities) {
+        deletePageItems(pageEntity.getNormalizedQuery(), pageEntity.getPageNo());
+        insertPage(pageEntity);
+        insertItems(itemEntities);
+    }
+
+    /**
+     * To keep the cache small, the pages older than the given time are deleted,
+     * then the oldest pages are deleted till the item rows fit into the given count.
+     *
+     * @return number of the deleted item rows.
+     */
+    @Transaction
+    public int prune (final long minFetchedAtMillis, final int maxItemRows) {
+        deletePagesFetchedBefore(minFetchedAtMillis);
+
+        int itemRows = 0;
+        for (SearchResultPageEntity pageEntity : retrievePagesNewestFirst()) {
+            itemRows += pageEntity.getItemCount();
+            if (itemRows > maxItemRows) {
+                deletePage(pageEntity.getNormalizedQuery(), pageEntity.getPageNo());
+            }
+        }
+
+        return deleteOrphanItems();
+    }
+}
@@ -0,0 +1,177 @@
+package com.dev.imagesearching.db.entities;
+
+import com.dev.imagesearching.models.StoredGridItem;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * (c) All rights reserved.
+ *
+ * An image received with any search results, kept for the local full-text search.
+ * Searchable text is indexed by {@link IndexedImageFtsEntity}, the rest of the fields are to display the matches.
+ */
+@Entity (tableName = "indexed_image_table")
+public class IndexedImageEntity implements StoredGridItem {
+
+    @PrimaryKey
+    @NonNull
+    @ColumnInfo(name = "imageID")
+    private String mImageID = "";
+
+    @ColumnInfo(name = "title")
+    private String mTitle;
+
+    @ColumnInfo(name = "description")
+    private String mDescription;
+
+    @ColumnInfo(name = "section")
+    private String mSection;
+
+    // Tag names separated by space.
+    @ColumnInfo(name = "tags")
+    private String mTags;
+
+    @ColumnInfo(name = "cover")
+    private String mCover;
+
+    @ColumnInfo(name = "coverWidth")
+    private int mCoverWidth;
+
+    @ColumnInfo(name = "coverHeight")
+    private int mCoverHeight;
+
+    @ColumnInfo(name = "topic")
+    private String mTopic;
+
+    @ColumnInfo(name = "accountUrl")
+    private String mAccountUrl;
+
+    @ColumnInfo(name = "isAnimated")
+    private boolean mIsAnimated;
+
+    @ColumnInfo(name = "hasSound")
+    private boolean mHasSound;
+
+    @ColumnInfo(name = "videoUrl")
+    private String mVideoUrl;
+
+    // Time the image was last received, the least recently seen images are pruned first.
+    @ColumnInfo(name = "indexedAtMillis")
+    private long mIndexedAtMillis;
+
+    @NonNull
+    public String getImageID() {
+        return mImageID;
+    }
+
+    public void setImageID(@NonNull String imageID) {
+        this.mImageID = imageID;
+    }
+
+    public String getTitle() {
+        return mTitle;
+    }
+
+    public void setTitle(String title) {
+        this.mTitle = title;
+    }
+
+    public String getDescription() {
+        return mDescription;
+    }
+
+    public void setDescription(String description) {
+        this.mDescription = description;
+    }
+
+    public String getSection() {
+        return mSection;
+    }
+
+    public void setSection(String section) {
+        this.mSection = section;
+    }
+
+    public String getTags() {
+        return mTags;
+    }
+
+    public void setTags(String tags) {
+        this.mTags = tags;
+    }
+
+    public String getCover() {
+        return mCover;
+    }
+
+    public void setCover(String cover) {
+        this.mCover = cover;
+    }
+
+    public int getCoverWidth() {
+        return mCoverWidth;
+    }
+
+    public void setCoverWidth(int coverWidth) {
+        this.mCoverWidth = coverWidth;
+    }
+
+    public int getCoverHeight() {
+        return mCoverHeight;
+    }
+
+    public void setCoverHeight(int coverHeight) {
+        this.mCoverHeight = coverHeight;
+    }
+
+    public String getTopic() {
+        return mTopic;
+    }
+
+    public void setTopic(String topic) {
+        this.mTopic = topic;
+    }
+
+    public String getAccountUrl() {
+        return mAccountUrl;
+    }
+
+    public void setAccountUrl(String accountUrl) {
+        this.mAccountUrl = accountUrl;
+    }
+
+    public boolean isAnimated() {
+        return mIsAnimated;
+    }
+
+    public void setAnimated(boolean isAnimated) {
+        this.mIsAnimated = isAnimated;
+    }
+
+    public boolean isHasSound() {
+        return mHasSound;
+    }
+
+    public void setHasSound(boolean hasSound) {
+        this.mHasSound = hasSound;
+    }
+
+    public String getVideoUrl() {
+        return mVideoUrl;
+    }
+
+    public void setVideoUrl(String videoUrl) {
+        this.mVideoUrl = videoUrl;
+    }
+
+    public long getIndexedAtMillis() {
+        return mIndexedAtMillis;
+    }
+
+    public void setIndexedAtMillis(long indexedAtMillis) {
+        this.mIndexedAtMillis = indexedAtMillis;
+    }
+}
@@ -0,0 +1,61 @@
+package com.dev.imagesearching.db.entities;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+
+/**
+ * (c) All rights reserved.
+ *
+ * Full-text index over the searchable text of {@link IndexedImageEntity},
+ * kept in sync with it by the triggers which Room creates for the external content table.
+ */
+@Fts4 (contentEntity = IndexedImageEntity.class, tokenizer = FtsOptions.TOKENIZER_UNICODE61)
+@Entity (tableName = "indexed_image_fts_table")
+public class IndexedImageFtsEntity {
+
+    @ColumnInfo(name = "title")
+    private String mTitle;
+
+    @ColumnInfo(name = "description")
+    private String mDescription;
+
+    @ColumnInfo(name = "section")
+    private String mSection;
+
+    @ColumnInfo(name = "tags")
+    private String mTags;
+
+    public String getTitle() {
+        return mTitle;
+    }
+
+    public void setTitle(String title) {
+        this.mTitle = title;
+    }
+
+    public String getDescription() {
+        return mDescription;
+    }
+
+    public void setDescription(String description) {
+        this.mDescription = description;
+    }
+
+    public String getSection() {
+        return mSection;
+    }
+
+    public void setSection(String section) {
+        this.mSection = section;
+    }
+
+    public String getTags() {
+        return mTags;
+    }
+
+    public void setTags(String tags) {
+        this.mTags = tags;
+    }
+}
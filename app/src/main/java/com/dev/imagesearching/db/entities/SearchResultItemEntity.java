@@ -0,0 +1,197 @@
+package com.dev.imagesearching.db.entities;
+
+import com.dev.imagesearching.models.StoredGridItem;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+
+/**
+ * (c) All rights reserved.
+ *
+ * An item of a cached search results page, keeps only the fields displayed by the grid/ details screen,
+ * along with the description and the tags matched when its query is refined.
+ */
+@Entity (tableName = "search_result_item_table", primaryKeys = {"normalizedQuery", "pageNo", "position"})
+public class SearchResultItemEntity implements StoredGridItem {
+
+    @NonNull
+    @ColumnInfo(name = "normalizedQuery")
+    private String mNormalizedQuery = "";
+
+    @ColumnInfo(name = "pageNo")
+    private int mPageNo;
+
+    // Position of the item in its page, to restore the order of the results.
+    @ColumnInfo(name = "position")
+    private int mPosition;
+
+    @ColumnInfo(name = "imageID")
+    private String mImageID;
+
+    @ColumnInfo(name = "title")
+    private String mTitle;
+
+    @ColumnInfo(name = "cover")
+    private String mCover;
+
+    @ColumnInfo(name = "coverWidth")
+    private int mCoverWidth;
+
+    @ColumnInfo(name = "coverHeight")
+    private int mCoverHeight;
+
+    @ColumnInfo(name = "section")
+    private String mSection;
+
+    @ColumnInfo(name = "topic")
+    private String mTopic;
+
+    @ColumnInfo(name = "accountUrl")
+    private String mAccountUrl;
+
+    @ColumnInfo(name = "isAnimated")
+    private boolean mIsAnimated;
+
+    @ColumnInfo(name = "hasSound")
+    private boolean mHasSound;
+
+    @ColumnInfo(name = "videoUrl")
+    private String mVideoUrl;
+
+    @ColumnInfo(name = "description")
+    private String mDescription;
+
+    // Tag names separated by space.
+    @ColumnInfo(name = "tags")
+    private String mTags;
+
+    @NonNull
+    public String getNormalizedQuery() {
+        return mNormalizedQuery;
+    }
+
+    public void setNormalizedQuery(@NonNull String normalizedQuery) {
+        this.mNormalizedQuery = normalizedQuery;
+    }
+
+    public int getPageNo() {
+        return mPageNo;
+    }
+
+    public void setPageNo(int pageNo) {
+        this.mPageNo = pageNo;
+    }
+
+    public int getPosition() {
+        return mPosition;
+    }
+
+    public void setPosition(int position) {
+        this.mPosition = position;
+    }
+
+    public String getImageID() {
+        return mImageID;
+    }
+
+    public void setImageID(String imageID) {
+        this.mImageID = imageID;
+    }
+
+    public String getTitle() {
+        return mTitle;
+    }
+
+    public void setTitle(String title) {
+        this.mTitle = title;
+    }
+
+    public String getCover() {
+        return mCover;
+    }
+
+    public void setCover(String cover) {
+        this.mCover = cover;
+    }
+
+    public int getCoverWidth() {
+        return mCoverWidth;
+    }
+
+    public void setCoverWidth(int coverWidth) {
+        this.mCoverWidth = coverWidth;
+    }
+
+    public int getCoverHeight() {
+        return mCoverHeight;
+    }
+
+    public void setCoverHeight(int coverHeight) {
+        this.mCoverHeight = coverHeight;
+    }
+
+    public String getSection() {
+        return mSection;
+    }
+
+    public void setSection(String section) {
+        this.mSection = section;
+    }
+
+    public String getTopic() {
+        return mTopic;
+    }
+
+    public void setTopic(String topic) {
+        this.mTopic = topic;
+    }
+
+    public String getAccountUrl() {
+        return mAccountUrl;
+    }
+
+    public void setAccountUrl(String accountUrl) {
+        this.mAccountUrl = accountUrl;
+    }
+
+    public boolean isAnimated() {
+        return mIsAnimated;
+    }
+
+    public void setAnimated(boolean isAnimated) {
+        this.mIsAnimated = isAnimated;
+    }
+
+    public boolean isHasSound() {
+        return mHasSound;
+    }
+
+    public void setHasSound(boolean hasSound) {
+        this.mHasSound = hasSound;
+    }
+
+    public String getVideoUrl() {
+        return mVideoUrl;
+    }
+
+    public void setVideoUrl(String videoUrl) {
+        this.mVideoUrl = videoUrl;
+    }
+
+    public String getDescription() {
+        return mDescription;
+    }
+
+    public void setDescription(String description) {
+        this.mDescription = description;
+    }
+
+    public String getTags() {
+        return mTags;
+    }
+
+    public void setTags(String tags) {
+        this.mTags = tags;
+    }
+}
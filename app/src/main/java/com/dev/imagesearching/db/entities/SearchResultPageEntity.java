@@ -0,0 +1,62 @@
+package com.dev.imagesearching.db.entities;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+
+/**
+ * (c) All rights reserved.
+ *
+ * A cached page of the search results, its items are kept in {@link SearchResultItemEntity}.
+ */
+@Entity (tableName = "search_result_page_table", primaryKeys = {"normalizedQuery", "pageNo"})
+public class SearchResultPageEntity {
+
+    @NonNull
+    @ColumnInfo(name = "normalizedQuery")
+    private String mNormalizedQuery = "";
+
+    @ColumnInfo(name = "pageNo")
+    private int mPageNo;
+
+    // Time of the network response, the page is pruned once it is too old.
+    @ColumnInfo(name = "fetchedAtMillis")
+    private long mFetchedAtMillis;
+
+    // Number of item rows of the page, the cache is capped by the total item rows.
+    @ColumnInfo(name = "itemCount")
+    private int mItemCount;
+
+    @NonNull
+    public String getNormalizedQuery() {
+        return mNormalizedQuery;
+    }
+
+    public void setNormalizedQuery(@NonNull String normalizedQuery) {
+        this.mNormalizedQuery = normalizedQuery;
+    }
+
+    public int getPageNo() {
+        return mPageNo;
+    }
+
+    public void setPageNo(int pageNo) {
+        this.mPageNo = pageNo;
+    }
+
+    public long getFetchedAtMillis() {
+        return mFetchedAtMillis;
+    }
+
+    public void setFetchedAtMillis(long fetchedAtMillis) {
+        this.mFetchedAtMillis = fetchedAtMillis;
+    }
+
+    public int getItemCount() {
+        return mItemCount;
+    }
+
+    public void setItemCount(int itemCount) {
+        this.mItemCount = itemCount;
+    }
+}
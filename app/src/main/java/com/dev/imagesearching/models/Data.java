@@ -3,6 +3,9 @@ package com.dev.imagesearching.models;
 import com.google.gson.annotations.Expose;
 import com.google.gson.annotations.SerializedName;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 public class Data {
@@ -391,4 +394,55 @@ public class Data {
     public void setImages(List<ImageDetails> images) {
         this.images = images;
     }
+
+    /**
+     * To get the tag names separated by space, as these are kept in the database.
+     * @return null if there are no tag names.
+     */
+    public String getJoinedTagNames() {
+        if (null == tags) {
+            return null;
+        }
+
+        StringBuilder tagNames = new StringBuilder();
+        for (Object tag : tags) {
+            if (tag instanceof String) {
+                if (tagNames.length() > 0) {
+                    tagNames.append(' ');
+                }
+                tagNames.append((String) tag);
+            }
+        }
+        return tagNames.length() > 0 ? tagNames.toString() : null;
+    }
+
+    /**
+     * To restore the image data of a grid item kept in the database.
+     * Only the cover details are kept, as the grid item looks for these.
+     */
+    public static Data fromStoredGridItem(StoredGridItem storedItem) {
+        Data imageData = new Data();
+        imageData.setId(storedItem.getImageID());
+        imageData.setTitle(storedItem.getTitle());
+        imageData.setCover(storedItem.getCover());
+        imageData.setCoverWidth(storedItem.getCoverWidth());
+        imageData.setCoverHeight(storedItem.getCoverHeight());
+        imageData.setSection(storedItem.getSection());
+        imageData.setTopic(storedItem.getTopic());
+        imageData.setAccountUrl(storedItem.getAccountUrl());
+        imageData.setDescription(storedItem.getDescription());
+        if (null != storedItem.getTags()) {
+            imageData.setTags(new ArrayList<Object>(Arrays.asList(storedItem.getTags().split(" "))));
+        }
+
+        if (storedItem.isAnimated()) {
+            ImageDetails coverDetails = new ImageDetails();
+            coverDetails.setId(storedItem.getCover());
+            coverDetails.setAnimated(true);
+            coverDetails.setHasSound(storedItem.isHasSound());
+            coverDetails.setMp4(storedItem.getVideoUrl());
+            imageData.setImages(Collections.singletonList(coverDetails));
+        }
+        return imageData;
+    }
 }
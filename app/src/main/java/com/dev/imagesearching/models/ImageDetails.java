@@ -85,6 +85,9 @@ public class ImageDetails {
     @SerializedName("link")
     @Expose
     private String link;
+    @SerializedName("mp4")
+    @Expose
+    private String mp4;
     @SerializedName("comment_count")
     @Expose
     private Object commentCount;
@@ -312,6 +315,14 @@ public class ImageDetails {
         this.link = link;
     }
 
+    public String getMp4() {
+        return mp4;
+    }
+
+    public void setMp4(String mp4) {
+        this.mp4 = mp4;
+    }
+
     public Object getCommentCount() {
         return commentCount;
     }
@@ -0,0 +1,207 @@
+package com.dev.imagesearching.models;
+
+import android.text.TextUtils;
+
+import com.dev.imagesearching.utils.ImgurImageUrlResolver;
+
+import java.util.List;
+
+import androidx.annotation.NonNull;
+
+/**
+ * (c) All rights reserved.
+ *
+ * Compact, immutable item of the images grid.
+ *
+ * Keeps only the fields shown by the grid/ details screen with primitive types,
+ * the repeated strings (section, topic, account url) are interned so that all the items share a single copy,
+ * and the original cover url is computed once instead of on every bind.
+ *
+ * For the animated covers, the url of the mp4 rendition is kept, so that the details screen plays it instead of the GIF.
+ */
+public final class ImageGridItem {
+
+    // Base62 alphabet of the Imgur ids.
+    private static final String IMGUR_ID_ALPHABET = "0123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    // Max. base62 digits which fit into a positive 64 bit id, in the bijective numeration.
+    private static final int MAX_BASE62_ID_LENGTH = 10;
+
+    // Bounds of the cell height w.r.t. its width, so that the panoramas and the long strips stay visible.
+    private static final float MIN_CELL_ASPECT_RATIO = 1f / 3f;
+    private static final float MAX_CELL_ASPECT_RATIO = 3f;
+
+    private final long mStableId;
+    private final String mId;
+    private final String mTitle;
+    private final String mCover;
+    private final String mCoverUrl;
+    private final int mCoverWidth;
+    private final int mCoverHeight;
+    private final String mSection;
+    private final String mTopic;
+    private final String mAccountUrl;
+    private final boolean mIsAnimated;
+    private final boolean mHasSound;
+    private final String mVideoUrl;
+
+    private ImageGridItem(@NonNull final Data imageData) {
+        mId = imageData.getId();
+        mStableId = toStableId(mId);
+        mTitle = imageData.getTitle();
+        mCover = imageData.getCover();
+        mCoverUrl = ImgurImageUrlResolver.buildUrl(mCover, ImgurImageUrlResolver.ImgurImageSize.ORIGINAL);
+        mCoverWidth = null != imageData.getCoverWidth() ? imageData.getCoverWidth() : 0;
+        mCoverHeight = null != imageData.getCoverHeight() ? imageData.getCoverHeight() : 0;
+        mSection = intern(imageData.getSection());
+        mTopic = intern(imageData.getTopic());
+        mAccountUrl = intern(imageData.getAccountUrl());
+
+        ImageDetails coverDetails = findCoverDetails(mCover, imageData.getImages());
+        mIsAnimated = null != coverDetails && Boolean.TRUE.equals(coverDetails.getAnimated());
+        mHasSound = mIsAnimated && Boolean.TRUE.equals(coverDetails.getHasSound());
+        if (mIsAnimated) {
+            mVideoUrl = !TextUtils.isEmpty(coverDetails.getMp4()) ? coverDetails.getMp4() : ImgurImageUrlResolver.buildVideoUrl(mCover);
+        } else {
+            mVideoUrl = null;
+        }
+    }
+
+    /**
+     * To find the details of the cover image, among the images of the gallery item.
+     */
+    private static ImageDetails findCoverDetails(final String cover, final List<ImageDetails> imageDetailsList) {
+        if (null == cover || null == imageDetailsList) {
+            return null;
+        }
+
+        for (ImageDetails imageDetails : imageDetailsList) {
+            if (null != imageDetails && cover.equals(imageDetails.getId())) {
+                return imageDetails;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * To prepare the grid item from the images data received from remote.
+     * @return null if the images data is not available.
+     */
+    public static ImageGridItem from(final Data imageData) {
+        return null == imageData ? null : new ImageGridItem(imageData);
+    }
+
+    /**
+     * To derive the stable 64 bit id from the Imgur id.
+     * Imgur ids are short base62 strings, which are decoded losslessly,
+     * any other id falls back to the 64 bit FNV-1a hash.
+     *
+     * Digits are decoded as 1 to 62 (bijective numeration), so that the leading zeros are not lost, e.g. "0abc" and "abc".
+     */
+    static long toStableId(final String imgurId) {
+        if (null == imgurId || imgurId.isEmpty()) {
+            return 0L;
+        }
+
+        if (imgurId.length() <= MAX_BASE62_ID_LENGTH) {
+            long stableId = 0L;
+            boolean isBase62 = true;
+
+            for (int index = 0; index < imgurId.length(); index++) {
+                int digit = IMGUR_ID_ALPHABET.indexOf(imgurId.charAt(index));
+                if (digit < 0) {
+                    isBase62 = false;
+                    break;
+                }
+                stableId = stableId * IMGUR_ID_ALPHABET.length() + digit + 1;
+            }
+
+            if (isBase62) {
+                return stableId;
+            }
+        }
+
+        // Hashed ids are kept negative, so that they never collide with the decoded ones.
+        long hash = 0xcbf29ce484222325L;
+        for (int index = 0; index < imgurId.length(); index++) {
+            hash ^= imgurId.charAt(index);
+            hash *= 0x100000001b3L;
+        }
+        long stableId = hash | Long.MIN_VALUE;
+
+        // Long.MIN_VALUE is never returned, it is reserved for the ids which are not of an image, e.g. the loading footer.
+        return Long.MIN_VALUE == stableId ? Long.MIN_VALUE + 1 : stableId;
+    }
+
+    private static String intern(final String value) {
+        return null == value ? null : value.intern();
+    }
+
+    public long getStableId() {
+        return mStableId;
+    }
+
+    public String getId() {
+        return mId;
+    }
+
+    public String getTitle() {
+        return mTitle;
+    }
+
+    public String getCover() {
+        return mCover;
+    }
+
+    public String getCoverUrl() {
+        return mCoverUrl;
+    }
+
+    public int getCoverWidth() {
+        return mCoverWidth;
+    }
+
+    public int getCoverHeight() {
+        return mCoverHeight;
+    }
+
+    public String getSection() {
+        return mSection;
+    }
+
+    public String getTopic() {
+        return mTopic;
+    }
+
+    public String getAccountUrl() {
+        return mAccountUrl;
+    }
+
+    /**
+     * To calculate the height of the cell displaying the cover with the given width, from the known cover dimensions.
+     * Cells are square if the cover dimensions are not known.
+     */
+    public int getCellHeight(final int cellWidthPx) {
+        if (mCoverWidth <= 0 || mCoverHeight <= 0) {
+            return cellWidthPx;
+        }
+
+        float aspectRatio = Math.max(MIN_CELL_ASPECT_RATIO, Math.min(MAX_CELL_ASPECT_RATIO, (float) mCoverHeight / mCoverWidth));
+        return Math.round(cellWidthPx * aspectRatio);
+    }
+
+    public boolean isAnimated() {
+        return mIsAnimated;
+    }
+
+    public boolean hasSound() {
+        return mHasSound;
+    }
+
+    /**
+     * Url of the mp4 rendition, null if the cover is not animated.
+     */
+    public String getVideoUrl() {
+        return mVideoUrl;
+    }
+}
@@ -0,0 +1,53 @@
+package com.dev.imagesearching.models;
+
+import static com.dev.imagesearching.utils.NetworkConstants.CODE_DEFAULT;
+
+/**
+ * (c) All rights reserved.
+ *
+ * Immutable state of the search result page loads, observed by the grid to show the progress and the errors.
+ */
+public final class PageLoadState {
+
+    public static final int STATUS_LOADING = 0;
+    public static final int STATUS_LOADED = 1;
+    public static final int STATUS_FAILED = 2;
+
+    private final int mStatus;
+
+    // Identify if the state is of the first page of the query, rather than a load more.
+    private final boolean mIsInitialLoad;
+
+    // Error code of the failed load, CODE_DEFAULT otherwise.
+    private final int mErrorCode;
+
+    private PageLoadState(final int status, final boolean isInitialLoad, final int errorCode) {
+        mStatus = status;
+        mIsInitialLoad = isInitialLoad;
+        mErrorCode = errorCode;
+    }
+
+    public static PageLoadState loading(final boolean isInitialLoad) {
+        return new PageLoadState(STATUS_LOADING, isInitialLoad, CODE_DEFAULT);
+    }
+
+    public static PageLoadState loaded(final boolean isInitialLoad) {
+        return new PageLoadState(STATUS_LOADED, isInitialLoad, CODE_DEFAULT);
+    }
+
+    public static PageLoadState failed(final boolean isInitialLoad, final int errorCode) {
+        return new PageLoadState(STATUS_FAILED, isInitialLoad, errorCode);
+    }
+
+    public int getStatus() {
+        return mStatus;
+    }
+
+    public boolean isInitialLoad() {
+        return mIsInitialLoad;
+    }
+
+    public int getErrorCode() {
+        return mErrorCode;
+    }
+}
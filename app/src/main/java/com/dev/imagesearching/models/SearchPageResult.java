@@ -0,0 +1,65 @@
+package com.dev.imagesearching.models;
+
+import androidx.annotation.NonNull;
+
+import static com.dev.imagesearching.utils.NetworkConstants.CODE_DEFAULT;
+
+/**
+ * (c) All rights reserved.
+ *
+ * Immutable result of a single search page request, i.e. the loaded page or the error,
+ * along with the query and the page number it belongs to.
+ */
+public final class SearchPageResult {
+
+    // Normalized query and the page number of the request.
+    private final String mQuery;
+    private final int mPageNo;
+
+    // Loaded page, null if the request has failed.
+    private final ImagesResponse mImagesResponse;
+
+    // Error code of the failed request, CODE_DEFAULT otherwise.
+    private final int mErrorCode;
+
+    private SearchPageResult(@NonNull final String query, final int pageNo, final ImagesResponse imagesResponse, final int errorCode) {
+        mQuery = query;
+        mPageNo = pageNo;
+        mImagesResponse = imagesResponse;
+        mErrorCode = errorCode;
+    }
+
+    public static SearchPageResult loaded(@NonNull final String query, final int pageNo, @NonNull final ImagesResponse imagesResponse) {
+        return new SearchPageResult(query, pageNo, imagesResponse, CODE_DEFAULT);
+    }
+
+    public static SearchPageResult failed(@NonNull final String query, final int pageNo, final int errorCode) {
+        return new SearchPageResult(query, pageNo, null, errorCode);
+    }
+
+    public boolean isSuccessful() {
+        return null != mImagesResponse;
+    }
+
+    public String getQuery() {
+        return mQuery;
+    }
+
+    public int getPageNo() {
+        return mPageNo;
+    }
+
+    /**
+     * @return loaded page, its data list is empty past the last page. Null if the request has failed.
+     */
+    public ImagesResponse getImagesResponse() {
+        return mImagesResponse;
+    }
+
+    /**
+     * @return Http response code, or one of the network error codes.
+     */
+    public int getErrorCode() {
+        return mErrorCode;
+    }
+}
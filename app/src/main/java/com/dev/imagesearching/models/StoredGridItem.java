@@ -0,0 +1,38 @@
+package com.dev.imagesearching.models;
+
+/**
+ * (c) All rights reserved.
+ *
+ * Fields of a grid item kept in the database, by the search results cache and the local search index,
+ * along with the searchable description and tags.
+ * See {@link Data#fromStoredGridItem(StoredGridItem)} to restore the image data from them.
+ */
+public interface StoredGridItem {
+
+    String getImageID();
+
+    String getTitle();
+
+    String getCover();
+
+    int getCoverWidth();
+
+    int getCoverHeight();
+
+    String getSection();
+
+    String getTopic();
+
+    String getAccountUrl();
+
+    boolean isAnimated();
+
+    boolean isHasSound();
+
+    String getVideoUrl();
+
+    String getDescription();
+
+    // Tag names separated by space.
+    String getTags();
+}
@@ -0,0 +1,150 @@
+package com.dev.imagesearching.repositories;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.dev.imagesearching.db.ImagesSearchDatabaseHelper;
+import com.dev.imagesearching.db.entities.ImageCommentEntity;
+import com.dev.imagesearching.utils.AppExecutors;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.MutableLiveData;
+
+/**
+ * (c) All rights reserved.
+ *
+ * Write-behind buffer of the comments, so that the quick successive edits don't turn into a database write each.
+ *
+ * Repeated writes for the same image are coalesced, only the latest comment is written.
+ * Buffered comments are written in a single transaction on the database write thread,
+ * once the delay passes since the first buffered comment or at once when the buffer is full, and on {@link #flush()}.
+ * Pending comments are served to the reads, so a comment is never missed while it is buffered or being written.
+ */
+class CommentWriteBuffer {
+
+    // Buffered comments are written once this delay passes, or at once when this many images are buffered.
+    private static final long FLUSH_DELAY_MILLIS = 2000L;
+    private static final int MAX_BUFFERED_IMAGES = 20;
+
+    private final Context mContext;
+    private final AppExecutors mExecutors = AppExecutors.getInstance();
+    private final Handler mFlushDelayHandler = new Handler(Looper.getMainLooper());
+    private final Runnable mDelayedFlush = this::flush;
+
+    // Latest comment of each image not written yet, in the order they are first buffered.
+    private final Map<String, PendingComment> mPendingComments = new LinkedHashMap<>();
+
+    // Comments taken out of the buffer and being written, guarded by the pending comments lock.
+    private final Map<String, String> mWritingComments = new HashMap<>();
+
+    CommentWriteBuffer(@NonNull final Context context) {
+        mContext = context.getApplicationContext();
+    }
+
+    /**
+     * To buffer the comment of the given image, it replaces the buffered comment of the image if any.
+     * @param insertResultStream emits the row id of the comment once it is written, negative if it is not.
+     */
+    void add (@NonNull final String imageID, @NonNull final String comment,
+              @NonNull final MutableLiveData<Long> insertResultStream) {
+        boolean isFull;
+        synchronized (mPendingComments) {
+            PendingComment pendingComment = mPendingComments.get(imageID);
+            if (null == pendingComment) {
+                pendingComment = new PendingComment();
+                mPendingComments.put(imageID, pendingComment);
+            }
+            pendingComment.mComment = comment;
+            pendingComment.mInsertResultStreams.add(insertResultStream);
+
+            isFull = mPendingComments.size() >= MAX_BUFFERED_IMAGES;
+            if (!isFull && 1 == mPendingComments.size()) {
+                mFlushDelayHandler.postDelayed(mDelayedFlush, FLUSH_DELAY_MILLIS);
+            }
+        }
+
+        if (isFull) {
+            flush();
+        }
+    }
+
+    /**
+     * To get the buffered comment of the given image.
+     * @return null if no comment is buffered for the image.
+     */
+    String getPendingComment (@NonNull final String imageID) {
+        synchronized (mPendingComments) {
+            PendingComment pendingComment = mPendingComments.get(imageID);
+            return null != pendingComment ? pendingComment.mComment : mWritingComments.get(imageID);
+        }
+    }
+
+    /**
+     * To write all the buffered comments now, e.g. when the app goes to background.
+     */
+    void flush () {
+        mFlushDelayHandler.removeCallbacks(mDelayedFlush);
+
+        // Writes are ordered on the single write thread.
+        mExecutors.dbWrite().execute(this::writePendingComments);
+    }
+
+    private void writePendingComments () {
+        List<ImageCommentEntity> commentEntities;
+        List<PendingComment> pendingComments;
+        synchronized (mPendingComments) {
+            if (mPendingComments.isEmpty()) {
+                return;
+            }
+
+            commentEntities = new ArrayList<>(mPendingComments.size());
+            for (Map.Entry<String, PendingComment> pendingEntry : mPendingComments.entrySet()) {
+                ImageCommentEntity entity = new ImageCommentEntity();
+                entity.setImageID(pendingEntry.getKey());
+                entity.setCommentMessage(pendingEntry.getValue().mComment);
+                commentEntities.add(entity);
+                mWritingComments.put(pendingEntry.getKey(), pendingEntry.getValue().mComment);
+            }
+            pendingComments = new ArrayList<>(mPendingComments.values());
+            mPendingComments.clear();
+        }
+
+        long[] insertionResults;
+        try {
+            insertionResults = ImagesSearchDatabaseHelper.getsDatabaseInstance(mContext).imageCommentsDao()
+                    .addComments(commentEntities);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            insertionResults = null;
+        }
+
+        // Comments are readable from the database now.
+        synchronized (mPendingComments) {
+            mWritingComments.clear();
+        }
+
+        // Notifying every coalesced request of the image about the write of its latest comment.
+        for (int index = 0; index < pendingComments.size(); index++) {
+            long insertionResult = null != insertionResults && index < insertionResults.length ? insertionResults[index] : -1L;
+            for (MutableLiveData<Long> insertResultStream : pendingComments.get(index).mInsertResultStreams) {
+                insertResultStream.postValue(insertionResult);
+            }
+        }
+    }
+
+    /**
+     * Latest comment of an image, and the streams of all the requests coalesced into it.
+     */
+    private static final class PendingComment {
+
+        private String mComment;
+        private final List<MutableLiveData<Long>> mInsertResultStreams = new ArrayList<>();
+    }
+}
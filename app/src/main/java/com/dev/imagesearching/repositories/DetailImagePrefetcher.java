@@ -0,0 +1,59 @@
+package com.dev.imagesearching.repositories;
+
+import android.content.Context;
+import android.text.TextUtils;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.request.FutureTarget;
+import com.dev.imagesearching.utils.ImgurImageUrlResolver;
+
+import java.io.File;
+
+import androidx.annotation.NonNull;
+
+/**
+ * (c) All rights reserved.
+ *
+ * Downloads the detail tier of the pressed grid item into the Glide disk cache,
+ * so that the details screen gets a head start of the press-down to tap-up time.
+ *
+ * Only one download is kept at a time, it is cancelled if the press turns into a scroll.
+ */
+class DetailImagePrefetcher {
+
+    // Download started on the press-down, which is not yet cancelled or handed over to the details screen.
+    private FutureTarget<File> mPendingTarget;
+
+    /**
+     * To start downloading the detail tier of the given image with the highest priority.
+     *
+     * @param coverID       Imgur id of the image displayed on the details screen.
+     * @param detailWidthPx width of the details screen image view in pixels.
+     */
+    synchronized void prefetch(@NonNull final Context context, final String coverID, final int detailWidthPx) {
+        cancel(context);
+
+        String imgURL = ImgurImageUrlResolver.buildUrl(coverID, ImgurImageUrlResolver.selectDetailSize(detailWidthPx));
+        if (TextUtils.isEmpty(imgURL)) {
+            return;
+        }
+
+        // User is about to open the image, so the download goes ahead of the grid thumbnails.
+        mPendingTarget = Glide.with(context)
+                .downloadOnly()
+                .load(imgURL)
+                .priority(Priority.IMMEDIATE)
+                .submit();
+    }
+
+    /**
+     * To cancel the pending download, e.g. when the press turns into a scroll.
+     */
+    synchronized void cancel(@NonNull final Context context) {
+        if (null != mPendingTarget) {
+            Glide.with(context).clear(mPendingTarget);
+            mPendingTarget = null;
+        }
+    }
+}
@@ -1,25 +1,36 @@
 package com.dev.imagesearching.repositories;
 
 import android.content.Context;
-import android.text.TextUtils;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
 import com.dev.imagesearching.ImagesSearchApplication;
 import com.dev.imagesearching.api.ApiClient;
 import com.dev.imagesearching.api.RemoteApiInterface;
+import com.dev.imagesearching.api.SingleFlightCallGroup;
 import com.dev.imagesearching.db.ImagesSearchDatabaseHelper;
 import com.dev.imagesearching.db.dao.ImageCommentsDao;
 import com.dev.imagesearching.db.entities.ImageCommentEntity;
+import com.dev.imagesearching.models.Data;
+import com.dev.imagesearching.models.ImageGridItem;
 import com.dev.imagesearching.models.ImagesResponse;
+import com.dev.imagesearching.models.SearchPageResult;
+import com.dev.imagesearching.utils.AppExecutors;
 import com.dev.imagesearching.utils.AppUtils;
 import com.google.gson.JsonSyntaxException;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -34,6 +45,9 @@ import static com.dev.imagesearching.utils.NetworkConstants.CODE_UNKNOWN;
  * Repository class to fulfill the images data requests and other data operations,
  *
  * - Fetch the images data from remote as per the given search keyword.
+ * - Serve the pages of the recent queries from memory, along with their scroll position.
+ * - Serve the previously fetched search result pages from local database, and refresh them in background.
+ * - Match the queries locally, against the images loaded for the previous query when refining it, or the full-text index of the previously received images.
  * - Retrieve the images data from local database,
  * - Add the comment to the given image.
  */
@@ -43,26 +57,63 @@ public class ImagesDataRepository {
 
     private static final String TAG = ImagesDataRepository.class.getSimpleName();
 
-    // Executor service is used make the resource intensive operations on the worker threads.
-    private ExecutorService mDBTransactionExecutorService;
+    // Returned when no scroll position is saved for a query.
+    public static final long NO_SCROLL_POSITION = RecentSearchesCache.NO_SCROLL_ANCHOR;
 
-    private MutableLiveData<ImagesResponse> mImagesResponseLiveData;
-    private MutableLiveData<Integer> mErrorCodeLiveData;
-    private MutableLiveData<Long> mDBInsertResultLiveData;
-    private MutableLiveData<String> mExistingRecordLiveData;
+    // Delay before the next page is speculatively fetched, leaves the network to the user initiated requests first.
+    private static final long PREFETCH_DELAY_MILLIS = 300L;
 
-    // Required private constructor to prevent the outside instantiation on the singleton repository class.
-    private ImagesDataRepository() {
+    // Worker thread pools, the database reads and writes never wait on each other.
+    private final AppExecutors mExecutors = AppExecutors.getInstance();
+
+    // Comments written behind in batches, created with the first comment access.
+    private volatile CommentWriteBuffer mCommentWriteBuffer;
+
+    // Coalesces the concurrent identical search requests into one network call.
+    private final SingleFlightCallGroup<ImagesResponse> mSearchCallGroup = new SingleFlightCallGroup<>();
+
+    // Generation of the current search session, incremented whenever a new keyword is searched.
+    private final AtomicInteger mSearchGeneration = new AtomicInteger();
+
+    // Normalized keyword of the current search session.
+    private String mActiveSearchKeyword;
+
+    // Callbacks of the current search session keyed by request key, these will be cancelled once a newer query starts.
+    // One callback instance per request key, so that the coalesced requests post the result only once.
+    private final Map<String, SearchResponseCallback> mActiveSearchCallbacks = new HashMap<>();
+
+    // Request keys of the speculative next page fetches, which are not yet asked by the user.
+    private final Set<String> mPendingPrefetchKeys = new HashSet<>();
+
+    // Prefetched pages of the current search session, waiting for the user to scroll to them.
+    private final Map<String, ImagesResponse> mPrefetchedPages = new HashMap<>();
 
-        // Initializing the various required live data.
-        mImagesResponseLiveData = new MutableLiveData<>();
-        mErrorCodeLiveData = new MutableLiveData<>();
+    // Prefetch is deferred on this handler, so that the user initiated requests always go first.
+    private final Handler mPrefetchHandler = new Handler(Looper.getMainLooper());
 
-        mDBInsertResultLiveData = new MutableLiveData<>();
-        mExistingRecordLiveData = new MutableLiveData<>();
+    // Warms the image disk cache with the thumbnails of the prefetched pages.
+    private final ThumbnailCacheWarmer mThumbnailCacheWarmer = new ThumbnailCacheWarmer();
 
-        // Obtaining the single worker thread for the network/ database operations.
-        mDBTransactionExecutorService = Executors.newSingleThreadExecutor();
+    // Items of the current search results displayed by the grid, shared with the details screen pager.
+    private volatile List<ImageGridItem> mSearchResultItems = Collections.emptyList();
+
+    // Downloads the detail image of the pressed grid item, ahead of the tap-up.
+    private final DetailImagePrefetcher mDetailImagePrefetcher = new DetailImagePrefetcher();
+
+    // Loaded pages and scroll positions of the recent queries, so that switching back to a query needs no request.
+    private final RecentSearchesCache mRecentSearchesCache = new RecentSearchesCache();
+
+    // Search result pages stored in the database, so that the repeated searches are served at once and offline.
+    private final SearchResultsCache mSearchResultsCache = new SearchResultsCache();
+
+    // Full-text index of every image received from remote, to match the queries locally.
+    private final SearchResultsIndex mSearchResultsIndex = new SearchResultsIndex();
+
+    // Cached pages are read on the worker thread and delivered on the main thread, like the network responses.
+    private final Handler mMainThreadHandler = new Handler(Looper.getMainLooper());
+
+    // Required private constructor to prevent the outside instantiation on the singleton repository class.
+    private ImagesDataRepository() {
     }
 
     public static ImagesDataRepository getInstance() {
@@ -83,58 +134,76 @@ public class ImagesDataRepository {
 
     /**
      * API method to push the comments into database for a given image.
+     * The comment is written behind, along with the other comments buffered meanwhile,
+     * and it is served by the comment retrievals till then.
      *
      * @param context required to access the database.
      * @param imgID        based on this the comment will be added for a particular image.
      * @param commentsData the comment text data.
+     * @return stream of this request, emits the row id of the comment once it is written, negative if it is not added.
      */
-    public void addCommentForImage(@NonNull final Context context, @NonNull final String imgID, final String commentsData) {
+    public LiveData<Long> addCommentForImage(@NonNull final Context context, @NonNull final String imgID, final String commentsData) {
+        MutableLiveData<Long> insertResultStream = new MutableLiveData<>();
 
         // Return as the context is not available, which is required to access the database.
         if (null == context) {
             Log.e(TAG, "Context is required to access the DB.");
-            return;
+            insertResultStream.setValue(-1L);
+            return insertResultStream;
         }
 
         // Return as image Id or the comment data is provided as null.
         if (null == imgID || null == commentsData) {
             Log.e(TAG, "Proper image ID and data required to store comment.");
-            return;
+            insertResultStream.setValue(-1L);
+            return insertResultStream;
         }
 
-        // Restart the executor service if it is stopped on shut-down.
-        restartExecutorServiceIfStopped();
+        // Buffering the comment, the quick successive edits are written together.
+        getCommentWriteBuffer(context).add(imgID, commentsData, insertResultStream);
 
-        // Async request to push the data into storage.
-        mDBTransactionExecutorService.execute(() -> {
+        return insertResultStream;
+    }
 
-            // Performing database operations to push the comments data for a given image.
-            ImagesSearchDatabaseHelper databaseHelper = ImagesSearchDatabaseHelper.getsDatabaseInstance(context);
-            ImageCommentsDao imageCommentsDao = databaseHelper.imageCommentsDao();
+    /**
+     * API method to write the buffered comments now, e.g. when the screen or the app is stopped.
+     */
+    public void flushPendingComments () {
+        CommentWriteBuffer commentWriteBuffer = mCommentWriteBuffer;
+        if (null != commentWriteBuffer) {
+            commentWriteBuffer.flush();
+        }
+    }
 
-            // Return as the Dao object is not available.
-            if (null == imageCommentsDao) {
-                return;
+    private CommentWriteBuffer getCommentWriteBuffer (@NonNull final Context context) {
+        if (null == mCommentWriteBuffer) {
+            synchronized (this) {
+                if (null == mCommentWriteBuffer) {
+                    mCommentWriteBuffer = new CommentWriteBuffer(context);
+                }
             }
+        }
+        return mCommentWriteBuffer;
+    }
 
-            // Making the database operation to add comment for a given image.
-            // If the comment already exist for the given image, then it will be replaced.
-            ImageCommentEntity entity = new ImageCommentEntity();
-            entity.setCommentMessage(commentsData);
-            entity.setImageID(imgID);
-
-            long insertionResult = imageCommentsDao.addComment(entity);
-
-            // Notifying the observer about the comment insertion results.
-            mDBInsertResultLiveData.postValue(insertionResult);
+    /**
+     * Listener to receive the comments stored for a set of images.
+     */
+    public interface OnCommentsRetrievedListener {
 
-        });
+        /**
+         * Called on the worker thread.
+         * @param storedComments comment of every requested image, empty string if no comment is stored for it.
+         */
+        void onCommentsRetrieved (Map<String, String> storedComments);
     }
 
     /**
-     * API method to retrieve the previously added comment for given image if any.
+     * API method to retrieve the previously added comments of the given images in a single query,
+     * e.g. comments of the details screen pages around the displayed one.
      */
-    public void getPreviousCommentForImage (@NonNull Context context, @NonNull final String imageID) {
+    public void getPreviousCommentsForImages (@NonNull final Context context, final List<String> imageIDs,
+                                              @NonNull final OnCommentsRetrievedListener listener) {
 
         // Return as the context is not available, which is required to access the database.
         if (null == context) {
@@ -142,18 +211,13 @@ public class ImagesDataRepository {
             return;
         }
 
-        if (TextUtils.isEmpty(imageID)) {
-            Log.e(TAG, "Image ID is required to retrieve the existing comment.");
+        if (null == imageIDs || imageIDs.isEmpty()) {
             return;
         }
 
-        // Restart the executor service if it is stopped on shut-down.
-        restartExecutorServiceIfStopped();
+        // Retrieving the existing comments on a worker thread.
+        mExecutors.dbRead().execute(() -> {
 
-        // Retrieving the existing comment on a worker thread.
-        mDBTransactionExecutorService.execute(() -> {
-
-            // Performing database operations to push the comments data for a given image.
             ImagesSearchDatabaseHelper databaseHelper = ImagesSearchDatabaseHelper.getsDatabaseInstance(context);
             ImageCommentsDao imageCommentsDao = databaseHelper.imageCommentsDao();
 
@@ -162,74 +226,574 @@ public class ImagesDataRepository {
                 return;
             }
 
-            // Making the database operation to add comment for a given image.
-            // If the comment already exist for the given image, then it will be replaced.
-            ImageCommentEntity dataRetrievalResult = imageCommentsDao.retrieveExistingComment(imageID);
-            if (null != dataRetrievalResult) {
-                // Notifying the observer about the comment retrieval results.
-                mExistingRecordLiveData.postValue(dataRetrievalResult.getCommentMessage());
+            // Comments written behind are taken before the query, so that none is missed if its write commits meanwhile.
+            CommentWriteBuffer commentWriteBuffer = getCommentWriteBuffer(context);
+            Map<String, String> pendingComments = new HashMap<>();
+            for (String imageID : imageIDs) {
+                String pendingComment = commentWriteBuffer.getPendingComment(imageID);
+                if (null != pendingComment) {
+                    pendingComments.put(imageID, pendingComment);
+                }
+            }
+
+            // Images without comment are reported with empty comment, so that they are not queried again.
+            Map<String, String> storedComments = new HashMap<>();
+            for (String imageID : imageIDs) {
+                storedComments.put(imageID, "");
             }
+            for (ImageCommentEntity commentEntity : imageCommentsDao.retrieveExistingComments(imageIDs)) {
+                storedComments.put(commentEntity.getImageID(), commentEntity.getCommentMessage());
+            }
+            storedComments.putAll(pendingComments);
+
+            listener.onCommentsRetrieved(storedComments);
         });
     }
 
     /**
-     * To initiate the network request which will retrieve the images data list.
+     * API method to prepare the details screen of the pressed image, before it is known if the press is a tap.
+     * The detail image download is started and the database is opened, so that the details screen opens faster.
+     *
+     * @param context required to access the database.
+     * @param coverID       Imgur id of the image displayed on the details screen.
+     * @param detailWidthPx width of the details screen image view in pixels.
+     */
+    public void prefetchImageDetails (@NonNull final Context context, final String coverID, final int detailWidthPx) {
+        mDetailImagePrefetcher.prefetch(context, coverID, detailWidthPx);
+
+        // Opening the database on the worker thread, so that the comment lookup of the details screen doesn't wait for it.
+        mExecutors.prefetch().execute(() ->
+                ImagesSearchDatabaseHelper.getsDatabaseInstance(context).getOpenHelper().getReadableDatabase());
+    }
+
+    /**
+     * API method to cancel the detail image download, when the press is not turned into a tap.
+     */
+    public void cancelImageDetailsPrefetch (@NonNull final Context context) {
+        mDetailImagePrefetcher.cancel(context);
+    }
+
+    /**
+     * To retrieve the given page of the images data list, the page cached in the database is served at once and refreshed
+     * in background, otherwise the network request is initiated. Must be called on the main thread.
+     *
+     * Every call gets its own result stream, so the concurrent loads of the different pages never overwrite each other.
+     * Searching a new keyword cancels the loads of the previous one, their streams never emit.
      *
-     * @param pageNo  required for paging, it must be greater than zero.
-     * @param keyword For the given keyword the results would be fetched.
+     * @param pageNo   required for paging, it must be greater than zero.
+     * @param keyword  For the given keyword the results would be fetched.
+     * @return stream which emits the page or the error once, the page is emitted at once if it is held in memory.
      */
-    public void loadImagesList(final int pageNo, final String keyword) {
+    public LiveData<SearchPageResult> loadImagesPage(final int pageNo, final String keyword) {
+        MutableLiveData<SearchPageResult> pageResultStream = new MutableLiveData<>();
+        final String normalizedKeyword = AppUtils.normalizeSearchQuery(keyword);
+
+        // Query is sent upstream as the user has typed it, the normalized one only identifies the request.
+        final String searchQuery = null != keyword ? keyword.trim() : "";
 
         // Return if the page number is not proper or the keyword is null.
         if (pageNo < 0 || null == keyword) {
-            return;
+            pageResultStream.setValue(SearchPageResult.failed(normalizedKeyword, pageNo, CODE_UNKNOWN));
+            return pageResultStream;
         }
 
+        // Identical requests (same normalized keyword and page) share the single in-flight call.
+        final String requestKey = prepareSearchRequestKey(normalizedKeyword, pageNo);
+
+        // Cancelling the requests of the previous keyword, as those results are not needed anymore.
+        SearchResponseCallback searchCallback = prepareSearchCallback(searchQuery, normalizedKeyword, pageNo, requestKey);
+        searchCallback.addResultStream(pageResultStream);
+
+        // Serving the page at once, if it is already prefetched.
+        ImagesResponse prefetchedPage = takePrefetchedPage(requestKey);
+        if (null != prefetchedPage) {
+            searchCallback.deliver(prefetchedPage);
+            return pageResultStream;
+        }
+
+        // Serving the page at once, if it is already loaded for a recent query.
+        ImagesResponse recentPage = mRecentSearchesCache.getPage(normalizedKeyword, pageNo);
+        if (null != recentPage) {
+            searchCallback.deliver(recentPage);
+            return pageResultStream;
+        }
+
+        // Looking up the page in the database first, the network is used only if it is not cached.
+        mExecutors.dbRead().execute(() -> {
+            ImagesResponse cachedPage = mSearchResultsCache.readPage(ImagesSearchApplication.getApplicationInstance(),
+                    normalizedKeyword, pageNo);
+
+            mMainThreadHandler.post(() -> {
+
+                // Return as the query has been changed meanwhile.
+                if (searchCallback.isSuperseded()) {
+                    return;
+                }
+
+                if (null != cachedPage) {
+                    // Displaying the cached page at once, and refreshing it in background.
+                    searchCallback.deliver(cachedPage);
+                    refreshCachedPage(pageNo, searchQuery, normalizedKeyword, requestKey);
+                } else {
+                    fetchPageFromRemote(pageNo, searchQuery, normalizedKeyword, requestKey, searchCallback);
+                }
+            });
+        });
+
+        return pageResultStream;
+    }
+
+    /**
+     * To fetch the page from remote, the identical in-flight requests share the single call.
+     */
+    private void fetchPageFromRemote (final int pageNo, @NonNull final String searchQuery, @NonNull final String normalizedKeyword,
+                                      @NonNull final String requestKey, @NonNull final SearchResponseCallback searchCallback) {
+
         // Check if the device is connected to network and internet connection is active.
 
         if (AppUtils.isNetworkAvailable(ImagesSearchApplication.getApplicationInstance())) {
-            ApiClient apiClient = ApiClient.getInstance();
-
-            RemoteApiInterface remoteApiInterface = apiClient.getApiInterface();
-
-            if (null != remoteApiInterface) {
-
-                // Preparing the header map for network request.
-                Map<String, String> headerMap = prepareImageSearchAPIHeaderMap();
-
-                remoteApiInterface.getImagesList(headerMap, pageNo, keyword).enqueue(new Callback<ImagesResponse>() {
-                    @Override
-                    public void onResponse(Call<ImagesResponse> call, Response<ImagesResponse> response) {
-
-                        // Notifying the view to stop the indicator as response is received.
-                        //mIsLoading.postValue(false);
-                        try {
-                            if (response.isSuccessful()) {
-                                ImagesResponse imgResponse = response.body();
-
-                                mImagesResponseLiveData.postValue(imgResponse);
-
-                            } else {
-                                // Sending the proper error Http response code.
-                                mErrorCodeLiveData.postValue(response.code());
-                            }
-                        } catch (JsonSyntaxException e) {
-                            e.printStackTrace();
-                            mErrorCodeLiveData.postValue(CODE_UNKNOWN);
-                        }
-                    }
-
-                    @Override
-                    public void onFailure(Call<ImagesResponse> call, Throwable t) {
-                        t.printStackTrace();
-                        // Throwing the retrofit error.
-                        mErrorCodeLiveData.postValue(CODE_UNKNOWN);
-                    }
-                });
+
+            boolean isIssued = mSearchCallGroup.execute(requestKey,
+                    () -> createSearchCall(pageNo, searchQuery), searchCallback);
+
+            if (!isIssued) {
+                Log.d(TAG, "Coalesced search request " + requestKey
+                        + ", issued: " + mSearchCallGroup.getIssuedCallCount()
+                        + ", coalesced: " + mSearchCallGroup.getCoalescedCallCount());
             }
         } else {
             // Internet is not connected.
-            mErrorCodeLiveData.postValue(CODE_INTERNET_NOT_AVAILABLE);
+            searchCallback.fail(CODE_INTERNET_NOT_AVAILABLE);
+        }
+    }
+
+    /**
+     * To fetch the already displayed cached page again, the fresh copy is only stored into the database,
+     * so that the grid is not reshuffled under the user. Refresh failure is silent.
+     */
+    private void refreshCachedPage (final int pageNo, @NonNull final String searchQuery,
+                                    @NonNull final String normalizedKeyword, @NonNull final String requestKey) {
+        if (!AppUtils.isNetworkAvailable(ImagesSearchApplication.getApplicationInstance())) {
+            return;
+        }
+
+        mSearchCallGroup.execute(requestKey, () -> createSearchCall(pageNo, searchQuery), new Callback<ImagesResponse>() {
+            @Override
+            public void onResponse(Call<ImagesResponse> call, Response<ImagesResponse> response) {
+                if (response.isSuccessful()) {
+                    storeSearchResultPage(normalizedKeyword, pageNo, response.body());
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ImagesResponse> call, Throwable t) {
+                Log.d(TAG, "Unable to refresh the cached page " + requestKey);
+            }
+        });
+    }
+
+    /**
+     * To store the page received from remote into the database, then to prune the cache to its bounds if it has grown enough.
+     * The images of the page are added to the local search index with the next batch.
+     */
+    private void storeSearchResultPage (@NonNull final String normalizedKeyword, final int pageNo, final ImagesResponse imgResponse) {
+        if (null == imgResponse || null == imgResponse.getDataList()) {
+            return;
+        }
+
+        mSearchResultsIndex.index(ImagesSearchApplication.getApplicationInstance(), imgResponse.getDataList());
+
+        mExecutors.dbWrite().execute(() -> {
+            Context context = ImagesSearchApplication.getApplicationInstance();
+            mSearchResultsCache.writePage(context, normalizedKeyword, pageNo, imgResponse);
+            mSearchResultsCache.pruneIfNeeded(context);
+        });
+    }
+
+    /**
+     * Listener to receive the local images matching a query, called on the main thread.
+     */
+    public interface OnLocalMatchesListener {
+
+        /**
+         * @param matches empty if nothing matches.
+         */
+        void onLocalMatches (@NonNull List<Data> matches);
+    }
+
+    /**
+     * API method to match the given query against the previously received images, without any network request.
+     *
+     * If the query refines the previous one, e.g. "cat" to "cats", the images loaded for the previous query are filtered,
+     * in their loaded order. Otherwise, or if none of these match, the local full-text index is matched,
+     * most recently received first. Every term of the query is matched as a prefix of the title, description, section or tags.
+     *
+     * @param previousKeyword keyword searched before this one, if any.
+     * @param limit           max. number of the matches.
+     */
+    public void findLocalMatches (@NonNull final String keyword, final String previousKeyword, final int limit,
+                                  @NonNull final OnLocalMatchesListener listener) {
+
+        // Filtering the loaded images is CPU bound, only the index lookup waits on the database.
+        mExecutors.compute().execute(() -> {
+            String normalizedKeyword = AppUtils.normalizeSearchQuery(keyword);
+            String previousNormalizedKeyword = AppUtils.normalizeSearchQuery(previousKeyword);
+
+            if (QueryRefinementFilter.isRefinement(previousNormalizedKeyword, normalizedKeyword)) {
+                List<Data> refinedMatches = QueryRefinementFilter.findMatches(mRecentSearchesCache.getImages(previousNormalizedKeyword),
+                        normalizedKeyword, limit);
+                if (!refinedMatches.isEmpty()) {
+                    mMainThreadHandler.post(() -> listener.onLocalMatches(refinedMatches));
+                    return;
+                }
+            }
+
+            mExecutors.dbRead().execute(() -> {
+                List<Data> indexMatches = mSearchResultsIndex.findMatches(ImagesSearchApplication.getApplicationInstance(), keyword, limit);
+                mMainThreadHandler.post(() -> listener.onLocalMatches(indexMatches));
+            });
+        });
+    }
+
+    /**
+     * To get the page already loaded for a recent query, without making any request.
+     * @return null if the page is not held in memory.
+     */
+    public ImagesResponse getRecentImagesPage (final int pageNo, @NonNull final String keyword) {
+        return mRecentSearchesCache.getPage(AppUtils.normalizeSearchQuery(keyword), pageNo);
+    }
+
+    /**
+     * To save the scroll position of the grid for the given query, restored when the user comes back to the query.
+     * @param scrollAnchorId stable id of the item on top of the grid.
+     */
+    public void saveSearchScrollPosition (@NonNull final String keyword, final long scrollAnchorId) {
+        mRecentSearchesCache.putScrollAnchor(AppUtils.normalizeSearchQuery(keyword), scrollAnchorId);
+    }
+
+    /**
+     * To get the saved scroll position of the grid for the given query.
+     * @return stable id of the item on top of the grid, or {@link #NO_SCROLL_POSITION} if nothing is saved.
+     */
+    public long getSearchScrollPosition (@NonNull final String keyword) {
+        return mRecentSearchesCache.getScrollAnchor(AppUtils.normalizeSearchQuery(keyword));
+    }
+
+    /**
+     * To switch to the search session of the given keyword, ahead of its first request.
+     * The in-flight calls and prefetches of the previous keyword are cancelled at once, so the latest query never waits on them.
+     */
+    public void switchSearchSession (@NonNull final String keyword) {
+        switchSearchSessionIfChanged(AppUtils.normalizeSearchQuery(keyword));
+    }
+
+    /**
+     * To prepare the callback for the user initiated search request.
+     * If the keyword is changed from the active session, a new search session is started,
+     * the in-flight calls of the superseded session are cancelled and their late responses are dropped.
+     *
+     * @return callback of the given request in the active search session.
+     */
+    private SearchResponseCallback prepareSearchCallback (@NonNull final String searchQuery, @NonNull final String normalizedKeyword,
+                                                          final int pageNo, @NonNull final String requestKey) {
+        synchronized (mActiveSearchCallbacks) {
+
+            switchSearchSessionIfChanged(normalizedKeyword);
+
+            // User has asked for the page now, so the pending prefetch (if any) will be delivered through the search callback.
+            mPendingPrefetchKeys.remove(requestKey);
+
+            SearchResponseCallback searchCallback = mActiveSearchCallbacks.get(requestKey);
+            if (null == searchCallback) {
+                searchCallback = new SearchResponseCallback(mSearchGeneration.get(), searchQuery, normalizedKeyword, pageNo);
+                mActiveSearchCallbacks.put(requestKey, searchCallback);
+            }
+
+            return searchCallback;
+        }
+    }
+
+    /**
+     * To start a new search session if the keyword is changed from the active session.
+     */
+    private void switchSearchSessionIfChanged (@NonNull final String normalizedKeyword) {
+        synchronized (mActiveSearchCallbacks) {
+            if (!normalizedKeyword.equals(mActiveSearchKeyword)) {
+                cancelActiveSearchSession();
+                mActiveSearchKeyword = normalizedKeyword;
+                mSearchGeneration.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * To cancel all the requests and prefetches of the active search session.
+     */
+    private void cancelActiveSearchSession () {
+        synchronized (mActiveSearchCallbacks) {
+            for (String staleRequestKey : mActiveSearchCallbacks.keySet()) {
+                mSearchCallGroup.cancel(staleRequestKey);
+            }
+            for (String stalePrefetchKey : mPendingPrefetchKeys) {
+                mSearchCallGroup.cancel(stalePrefetchKey);
+            }
+
+            mActiveSearchCallbacks.clear();
+            mPendingPrefetchKeys.clear();
+            mPrefetchedPages.clear();
+        }
+
+        mPrefetchHandler.removeCallbacksAndMessages(null);
+        mThumbnailCacheWarmer.cancelAll(ImagesSearchApplication.getApplicationInstance());
+    }
+
+    /**
+     * To take out the prefetched page if available.
+     */
+    private ImagesResponse takePrefetchedPage (@NonNull final String requestKey) {
+        synchronized (mActiveSearchCallbacks) {
+            return mPrefetchedPages.remove(requestKey);
+        }
+    }
+
+    /**
+     * To schedule the speculative fetch of the next page, once the current page has arrived.
+     */
+    private void scheduleNextPagePrefetch (final int generation, @NonNull final String searchQuery,
+                                           @NonNull final String normalizedKeyword, final int pageNo) {
+        mPrefetchHandler.postDelayed(() -> prefetchPage(generation, searchQuery, normalizedKeyword, pageNo), PREFETCH_DELAY_MILLIS);
+    }
+
+    /**
+     * To fetch the given page in background, it will be kept aside till the user scrolls to it.
+     */
+    private void prefetchPage (final int generation, @NonNull final String searchQuery,
+                               @NonNull final String normalizedKeyword, final int pageNo) {
+
+        // Return as the query has been changed meanwhile.
+        if (generation != mSearchGeneration.get()) {
+            return;
+        }
+
+        // Prefetch is of lower priority, deferring it till the user initiated requests are completed.
+        if (isUserSearchInFlight()) {
+            scheduleNextPagePrefetch(generation, searchQuery, normalizedKeyword, pageNo);
+            return;
+        }
+
+        // Return as the page is already held in memory.
+        if (null != mRecentSearchesCache.getPage(normalizedKeyword, pageNo)
+                || !AppUtils.isNetworkAvailable(ImagesSearchApplication.getApplicationInstance())) {
+            return;
+        }
+
+        final String requestKey = prepareSearchRequestKey(normalizedKeyword, pageNo);
+
+        synchronized (mActiveSearchCallbacks) {
+
+            // Return as the page is already asked by the user or already prefetched.
+            if (mActiveSearchCallbacks.containsKey(requestKey)
+                    || mPendingPrefetchKeys.contains(requestKey)
+                    || mPrefetchedPages.containsKey(requestKey)) {
+                return;
+            }
+
+            mPendingPrefetchKeys.add(requestKey);
+        }
+
+        mSearchCallGroup.execute(requestKey, () -> createSearchCall(pageNo, searchQuery),
+                new PrefetchResponseCallback(generation, requestKey, normalizedKeyword, pageNo));
+    }
+
+    /**
+     * To check if any user initiated search request of the active session is still running.
+     */
+    private boolean isUserSearchInFlight () {
+        synchronized (mActiveSearchCallbacks) {
+            for (String requestKey : mActiveSearchCallbacks.keySet()) {
+                if (mSearchCallGroup.isInFlight(requestKey)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * To create the network call for the given search page.
+     * @param searchQuery query as the user has typed it, the server does its own matching on it.
+     */
+    private Call<ImagesResponse> createSearchCall (final int pageNo, @NonNull final String searchQuery) {
+        RemoteApiInterface remoteApiInterface = ApiClient.getInstance().getApiInterface();
+
+        // Preparing the header map for network request.
+        Map<String, String> headerMap = prepareImageSearchAPIHeaderMap();
+
+        return remoteApiInterface.getImagesList(headerMap, pageNo, searchQuery);
+    }
+
+    /**
+     * To prepare the key which identifies the identical search requests.
+     */
+    private String prepareSearchRequestKey (@NonNull final String normalizedKeyword, final int pageNo) {
+        return normalizedKeyword + "#" + pageNo;
+    }
+
+    /**
+     * Callback for a user initiated search request.
+     * Carries the generation token of its session, so that the responses of a superseded session never reach the streams.
+     */
+    private class SearchResponseCallback implements Callback<ImagesResponse> {
+
+        private final int mGeneration;
+        private final String mSearchQuery;
+        private final String mNormalizedKeyword;
+        private final int mPageNo;
+
+        // Result streams of the requests waiting for this page, each of them emits only once.
+        private final List<MutableLiveData<SearchPageResult>> mResultStreams = new ArrayList<>();
+
+        SearchResponseCallback(final int generation, @NonNull final String searchQuery,
+                               @NonNull final String normalizedKeyword, final int pageNo) {
+            mGeneration = generation;
+            mSearchQuery = searchQuery;
+            mNormalizedKeyword = normalizedKeyword;
+            mPageNo = pageNo;
+        }
+
+        void addResultStream(@NonNull final MutableLiveData<SearchPageResult> pageResultStream) {
+            mResultStreams.add(pageResultStream);
+        }
+
+        @Override
+        public void onResponse(Call<ImagesResponse> call, Response<ImagesResponse> response) {
+
+            // Dropping the stale response, a newer query has already started.
+            if (isStale(call)) {
+                return;
+            }
+
+            try {
+                if (response.isSuccessful()) {
+                    storeSearchResultPage(mNormalizedKeyword, mPageNo, response.body());
+                    deliver(response.body());
+                } else {
+                    // Sending the proper error Http response code.
+                    fail(response.code());
+                }
+            } catch (JsonSyntaxException e) {
+                e.printStackTrace();
+                fail(CODE_UNKNOWN);
+            }
+        }
+
+        @Override
+        public void onFailure(Call<ImagesResponse> call, Throwable t) {
+
+            // Cancelled or superseded request is not an error for the user.
+            if (isStale(call)) {
+                return;
+            }
+
+            t.printStackTrace();
+            // Throwing the retrofit error.
+            fail(CODE_UNKNOWN);
+        }
+
+        /**
+         * To emit the page on the waiting streams, and to start prefetching the next one.
+         */
+        void deliver(final ImagesResponse imgResponse) {
+            ImagesResponse loadedPage = null != imgResponse ? imgResponse : new ImagesResponse();
+            if (null == loadedPage.getDataList()) {
+                loadedPage.setDataList(Collections.emptyList());
+            }
+
+            // Holding the page for the query, so that it is displayed at once if the user comes back to the query.
+            mRecentSearchesCache.putPage(mNormalizedKeyword, mPageNo, loadedPage);
+
+            SearchPageResult pageResult = SearchPageResult.loaded(mNormalizedKeyword, mPageNo, loadedPage);
+            for (MutableLiveData<SearchPageResult> pageResultStream : takeResultStreams()) {
+                pageResultStream.setValue(pageResult);
+            }
+
+            if (!loadedPage.getDataList().isEmpty()) {
+                scheduleNextPagePrefetch(mGeneration, mSearchQuery, mNormalizedKeyword, mPageNo + 1);
+            }
+        }
+
+        /**
+         * To emit the error on the waiting streams, the page can be asked again to retry.
+         */
+        void fail(final int errorCode) {
+            SearchPageResult pageResult = SearchPageResult.failed(mNormalizedKeyword, mPageNo, errorCode);
+            for (MutableLiveData<SearchPageResult> pageResultStream : takeResultStreams()) {
+                pageResultStream.setValue(pageResult);
+            }
+        }
+
+        private List<MutableLiveData<SearchPageResult>> takeResultStreams() {
+            List<MutableLiveData<SearchPageResult>> resultStreams = new ArrayList<>(mResultStreams);
+            mResultStreams.clear();
+            return resultStreams;
+        }
+
+        private boolean isStale(Call<ImagesResponse> call) {
+            return call.isCanceled() || isSuperseded();
+        }
+
+        /**
+         * To check if a newer query has started after this request.
+         */
+        boolean isSuperseded() {
+            return mGeneration != mSearchGeneration.get();
+        }
+    }
+
+    /**
+     * Callback for a speculative next page fetch.
+     * The page is kept aside only if the user has not asked for it meanwhile, otherwise the search callback delivers it.
+     */
+    private class PrefetchResponseCallback implements Callback<ImagesResponse> {
+
+        private final int mGeneration;
+        private final String mRequestKey;
+        private final String mNormalizedKeyword;
+        private final int mPageNo;
+
+        PrefetchResponseCallback(final int generation, @NonNull final String requestKey,
+                                 @NonNull final String normalizedKeyword, final int pageNo) {
+            mGeneration = generation;
+            mRequestKey = requestKey;
+            mNormalizedKeyword = normalizedKeyword;
+            mPageNo = pageNo;
+        }
+
+        @Override
+        public void onResponse(Call<ImagesResponse> call, Response<ImagesResponse> response) {
+            ImagesResponse imgResponse = response.isSuccessful() ? response.body() : null;
+
+            // Prefetched page is worth caching, even if the query has been changed meanwhile.
+            storeSearchResultPage(mNormalizedKeyword, mPageNo, imgResponse);
+
+            synchronized (mActiveSearchCallbacks) {
+                if (!mPendingPrefetchKeys.remove(mRequestKey) || null == imgResponse
+                        || call.isCanceled() || mGeneration != mSearchGeneration.get()) {
+                    return;
+                }
+                mPrefetchedPages.put(mRequestKey, imgResponse);
+            }
+
+            // Downloading the thumbnails of the prefetched page, so the next scroll threshold is served from cache.
+            mThumbnailCacheWarmer.warm(ImagesSearchApplication.getApplicationInstance(), imgResponse.getDataList());
+        }
+
+        @Override
+        public void onFailure(Call<ImagesResponse> call, Throwable t) {
+            // Prefetch failure is silent, the user initiated request will go to the network again.
+            synchronized (mActiveSearchCallbacks) {
+                mPendingPrefetchKeys.remove(mRequestKey);
+            }
         }
     }
 
@@ -245,39 +809,46 @@ public class ImagesDataRepository {
     }
 
     /**
-     * To restart the executor service is stopped or shutdown.
+     * To set the size of the grid thumbnails, so that the prefetched thumbnails match the tier displayed by the grid.
+     * @param thumbnailSizePx width of a grid cell in pixels.
      */
-    private void restartExecutorServiceIfStopped () {
-        if (null == mDBTransactionExecutorService || mDBTransactionExecutorService.isShutdown()) {
-            mDBTransactionExecutorService = Executors.newSingleThreadScheduledExecutor();
-        }
+    public void setGridThumbnailSize (final int thumbnailSizePx) {
+        mThumbnailCacheWarmer.setThumbnailSize(thumbnailSizePx);
+    }
+
+    /**
+     * To set if the grid cells are sized from the image aspect ratios, so that the prefetched thumbnails match them.
+     */
+    public void setStaggeredGrid (final boolean isStaggeredGrid) {
+        mThumbnailCacheWarmer.setStaggeredGrid(isStaggeredGrid);
     }
 
     /**
-     * Will be observed to track the comment insert operation.
+     * To share the current search results, so that the details screen can page through them.
+     * @param searchResultItems must not be modified once published.
      */
-    public MutableLiveData<Long> getInsertRecordResultObservable () {
-        return mDBInsertResultLiveData;
+    public void publishSearchResultItems (final List<ImageGridItem> searchResultItems) {
+        mSearchResultItems = null != searchResultItems ? searchResultItems : Collections.emptyList();
     }
 
     /**
-     * To keep track if the previously added comment found or not.
+     * To get the current search results, displayed by the grid.
      */
-    public MutableLiveData <String> getExistingRecordObservable() {
-        return mExistingRecordLiveData;
+    public List<ImageGridItem> getSearchResultItems () {
+        return mSearchResultItems;
     }
 
     /**
-     * To get the images data observable.
+     * Number of search calls actually sent over the network.
      */
-    public MutableLiveData<ImagesResponse> getImagesResponseObservable () {
-        return mImagesResponseLiveData;
+    public long getIssuedSearchCallCount () {
+        return mSearchCallGroup.getIssuedCallCount();
     }
 
     /**
-     * To identify the cause of network failure.
+     * Number of search requests served by joining an identical in-flight call.
      */
-    public MutableLiveData<Integer> getNetworkFailureCodeObservable () {
-        return mErrorCodeLiveData;
+    public long getCoalescedSearchCallCount () {
+        return mSearchCallGroup.getCoalescedCallCount();
     }
 }
@@ -0,0 +1,92 @@
+package com.dev.imagesearching.repositories;
+
+import com.dev.imagesearching.models.Data;
+import com.dev.imagesearching.utils.AppUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+
+/**
+ * (c) All rights reserved.
+ *
+ * Filters the images already loaded for a query against a refinement of it, e.g. "cat" to "cats" to "cats sleeping",
+ * so that the matches are displayed while the refined query is requested.
+ *
+ * An image matches if every term of the refined query is a prefix of a word of its title, description, section or tags,
+ * same as the local search index matches the terms. Both split the words with {@link AppUtils#tokenizeSearchText(String)}.
+ */
+class QueryRefinementFilter {
+
+    private QueryRefinementFilter() {
+    }
+
+    /**
+     * To check if the query refines the previous one, i.e. extends it.
+     * Both the queries must be normalized.
+     */
+    static boolean isRefinement (final String previousNormalizedQuery, @NonNull final String normalizedQuery) {
+        return null != previousNormalizedQuery && !previousNormalizedQuery.isEmpty()
+                && normalizedQuery.length() > previousNormalizedQuery.length()
+                && normalizedQuery.startsWith(previousNormalizedQuery);
+    }
+
+    /**
+     * To find the images matching every term of the normalized query, in their loaded order.
+     * @param limit max. number of the matches.
+     */
+    static List<Data> findMatches (@NonNull final List<Data> images, @NonNull final String normalizedQuery, final int limit) {
+        List<String> terms = AppUtils.tokenizeSearchText(normalizedQuery);
+
+        List<Data> matches = new ArrayList<>();
+        if (terms.isEmpty()) {
+            return matches;
+        }
+
+        for (Data imageData : images) {
+            if (null != imageData && matchesAllTerms(prepareSearchableText(imageData), terms)) {
+                matches.add(imageData);
+                if (matches.size() >= limit) {
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * To prepare the words of the title, description, section and tags of the image, each preceded by a space.
+     */
+    private static String prepareSearchableText (@NonNull final Data imageData) {
+        StringBuilder searchableText = new StringBuilder();
+        appendWords(searchableText, imageData.getTitle());
+        if (imageData.getDescription() instanceof String) {
+            appendWords(searchableText, (String) imageData.getDescription());
+        }
+        appendWords(searchableText, imageData.getSection());
+        if (null != imageData.getTags()) {
+            for (Object tag : imageData.getTags()) {
+                if (tag instanceof String) {
+                    appendWords(searchableText, (String) tag);
+                }
+            }
+        }
+        return searchableText.toString();
+    }
+
+    private static void appendWords (@NonNull final StringBuilder searchableText, final String text) {
+        for (String word : AppUtils.tokenizeSearchText(text)) {
+            searchableText.append(' ').append(word);
+        }
+    }
+
+    private static boolean matchesAllTerms (@NonNull final String searchableText, @NonNull final List<String> terms) {
+        for (String term : terms) {
+            if (!searchableText.contains(" " + term)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
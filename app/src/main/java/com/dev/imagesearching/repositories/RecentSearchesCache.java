@@ -0,0 +1,191 @@
+package com.dev.imagesearching.repositories;
+
+import android.util.LruCache;
+
+import com.dev.imagesearching.models.Data;
+import com.dev.imagesearching.models.ImageDetails;
+import com.dev.imagesearching.models.ImagesResponse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import androidx.annotation.NonNull;
+
+/**
+ * (c) All rights reserved.
+ *
+ * Memory cache of the recently searched queries, keyed by the normalized query.
+ *
+ * Holds the pages already loaded for a query along with the scroll position of the grid,
+ * so that switching back to a recent query displays its results without any network/ database request.
+ *
+ * Queries are evicted least recently used first, once the estimated size of the held pages exceeds the byte budget.
+ * Entries are immutable and replaced on every update, so that the cache accounts their size correctly.
+ */
+class RecentSearchesCache {
+
+    // Share of the max. heap given to the recent searches, and its upper bound.
+    private static final int HEAP_FRACTION = 32;
+    private static final int MAX_BUDGET_BYTES = 4 * 1024 * 1024;
+
+    // Rough sizes of the objects on the heap, used to estimate the size of the held pages.
+    private static final int OBJECT_OVERHEAD_BYTES = 16;
+    private static final int REFERENCE_BYTES = 4;
+    private static final int STRING_OVERHEAD_BYTES = 40;
+    private static final int DATA_FIELDS_BYTES = 160;
+    private static final int IMAGE_DETAILS_FIELDS_BYTES = 120;
+
+    // Stable id of the item which was on top of the grid, when no scroll position is saved.
+    static final long NO_SCROLL_ANCHOR = Long.MIN_VALUE;
+
+    private final LruCache<String, RecentSearch> mRecentSearches;
+
+    RecentSearchesCache() {
+        int budgetBytes = (int) Math.min(MAX_BUDGET_BYTES, Runtime.getRuntime().maxMemory() / HEAP_FRACTION);
+
+        mRecentSearches = new LruCache<String, RecentSearch>(budgetBytes) {
+            @Override
+            protected int sizeOf(String normalizedQuery, RecentSearch recentSearch) {
+                return recentSearch.mSizeBytes;
+            }
+        };
+    }
+
+    /**
+     * To get the loaded page of the recent query.
+     * @return null if the page is not held.
+     */
+    ImagesResponse getPage (@NonNull final String normalizedQuery, final int pageNo) {
+        RecentSearch recentSearch = mRecentSearches.get(normalizedQuery);
+        return null != recentSearch ? recentSearch.mPages.get(pageNo) : null;
+    }
+
+    /**
+     * To get the images of all the loaded pages of the recent query, in the page order.
+     * @return empty if the query is not held.
+     */
+    List<Data> getImages (@NonNull final String normalizedQuery) {
+        RecentSearch recentSearch = mRecentSearches.get(normalizedQuery);
+        if (null == recentSearch) {
+            return Collections.emptyList();
+        }
+
+        List<Data> images = new ArrayList<>();
+        for (ImagesResponse page : new TreeMap<>(recentSearch.mPages).values()) {
+            if (null != page.getDataList()) {
+                images.addAll(page.getDataList());
+            }
+        }
+        return images;
+    }
+
+    /**
+     * To hold the loaded page of the query.
+     */
+    void putPage (@NonNull final String normalizedQuery, final int pageNo, @NonNull final ImagesResponse page) {
+        synchronized (mRecentSearches) {
+            RecentSearch recentSearch = mRecentSearches.get(normalizedQuery);
+            if (null != recentSearch && page == recentSearch.mPages.get(pageNo)) {
+                return;
+            }
+
+            Map<Integer, ImagesResponse> pages = null != recentSearch ? new HashMap<>(recentSearch.mPages) : new HashMap<>();
+            pages.put(pageNo, page);
+
+            long scrollAnchorId = null != recentSearch ? recentSearch.mScrollAnchorId : NO_SCROLL_ANCHOR;
+            mRecentSearches.put(normalizedQuery, new RecentSearch(pages, scrollAnchorId));
+        }
+    }
+
+    /**
+     * To save the scroll position of the query, as the stable id of the item on top of the grid.
+     * Nothing is saved if no page of the query is held.
+     */
+    void putScrollAnchor (@NonNull final String normalizedQuery, final long scrollAnchorId) {
+        synchronized (mRecentSearches) {
+            RecentSearch recentSearch = mRecentSearches.get(normalizedQuery);
+            if (null != recentSearch && scrollAnchorId != recentSearch.mScrollAnchorId) {
+                mRecentSearches.put(normalizedQuery, new RecentSearch(recentSearch.mPages, scrollAnchorId));
+            }
+        }
+    }
+
+    /**
+     * To get the saved scroll position of the query.
+     * @return NO_SCROLL_ANCHOR if nothing is saved.
+     */
+    long getScrollAnchor (@NonNull final String normalizedQuery) {
+        RecentSearch recentSearch = mRecentSearches.get(normalizedQuery);
+        return null != recentSearch ? recentSearch.mScrollAnchorId : NO_SCROLL_ANCHOR;
+    }
+
+    /**
+     * Pages and the scroll position of a recent query.
+     */
+    private static final class RecentSearch {
+
+        private final Map<Integer, ImagesResponse> mPages;
+        private final long mScrollAnchorId;
+        private final int mSizeBytes;
+
+        RecentSearch(@NonNull final Map<Integer, ImagesResponse> pages, final long scrollAnchorId) {
+            mPages = Collections.unmodifiableMap(pages);
+            mScrollAnchorId = scrollAnchorId;
+
+            int sizeBytes = OBJECT_OVERHEAD_BYTES;
+            for (ImagesResponse page : pages.values()) {
+                sizeBytes += estimateSizeBytes(page);
+            }
+            mSizeBytes = sizeBytes;
+        }
+    }
+
+    private static int estimateSizeBytes (@NonNull final ImagesResponse page) {
+        int sizeBytes = OBJECT_OVERHEAD_BYTES;
+
+        List<Data> dataList = page.getDataList();
+        if (null == dataList) {
+            return sizeBytes;
+        }
+
+        for (Data imageData : dataList) {
+            sizeBytes += REFERENCE_BYTES + OBJECT_OVERHEAD_BYTES + DATA_FIELDS_BYTES
+                    + estimateSizeBytes(imageData.getId())
+                    + estimateSizeBytes(imageData.getTitle())
+                    + estimateSizeBytes(imageData.getCover())
+                    + estimateSizeBytes(imageData.getSection())
+                    + estimateSizeBytes(imageData.getTopic())
+                    + estimateSizeBytes(imageData.getAccountUrl());
+
+            // Description and tag names are kept for the local search index.
+            if (imageData.getDescription() instanceof String) {
+                sizeBytes += estimateSizeBytes((String) imageData.getDescription());
+            }
+            List<Object> tags = imageData.getTags();
+            if (null != tags) {
+                for (Object tag : tags) {
+                    sizeBytes += REFERENCE_BYTES + (tag instanceof String ? estimateSizeBytes((String) tag) : OBJECT_OVERHEAD_BYTES);
+                }
+            }
+
+            List<ImageDetails> imageDetailsList = imageData.getImages();
+            if (null != imageDetailsList) {
+                for (ImageDetails imageDetails : imageDetailsList) {
+                    sizeBytes += REFERENCE_BYTES + OBJECT_OVERHEAD_BYTES + IMAGE_DETAILS_FIELDS_BYTES
+                            + estimateSizeBytes(imageDetails.getId())
+                            + estimateSizeBytes(imageDetails.getType())
+                            + estimateSizeBytes(imageDetails.getMp4());
+                }
+            }
+        }
+        return sizeBytes;
+    }
+
+    private static int estimateSizeBytes (final String value) {
+        return null == value ? 0 : STRING_OVERHEAD_BYTES + 2 * value.length();
+    }
+}
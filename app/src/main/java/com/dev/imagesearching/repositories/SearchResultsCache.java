@@ -0,0 +1,137 @@
+package com.dev.imagesearching.repositories;
+
+import android.content.Context;
+
+import com.dev.imagesearching.db.ImagesSearchDatabaseHelper;
+import com.dev.imagesearching.db.dao.SearchResultsDao;
+import com.dev.imagesearching.db.entities.SearchResultItemEntity;
+import com.dev.imagesearching.db.entities.SearchResultPageEntity;
+import com.dev.imagesearching.models.Data;
+import com.dev.imagesearching.models.ImageGridItem;
+import com.dev.imagesearching.models.ImagesResponse;
+
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+
+import static com.dev.imagesearching.db.DBConstants.CACHED_SEARCH_RESULT_PRUNE_INTERVAL_ITEMS;
+import static com.dev.imagesearching.db.DBConstants.MAX_CACHED_SEARCH_RESULT_AGE_MILLIS;
+import static com.dev.imagesearching.db.DBConstants.MAX_CACHED_SEARCH_RESULT_ITEMS;
+
+/**
+ * (c) All rights reserved.
+ *
+ * Database cache of the search result pages, keyed by the normalized query and the page number.
+ *
+ * Only the fields displayed by the grid/ details screen are stored, along with the description and the tags matched
+ * when the query is refined, the cached page is rebuilt as a regular response.
+ * The cache is capped by the number of item rows and the age of the pages, it is pruned once enough items are written
+ * instead of on every write. Expired pages are never served, so they may wait for the next prune.
+ *
+ * All the methods block on the database, these must be called on the worker thread, the writes on the database write thread.
+ */
+class SearchResultsCache {
+
+    // Item rows written since the last prune, starts past the interval so that the first write of the session prunes.
+    private int mItemRowsSinceLastPrune = CACHED_SEARCH_RESULT_PRUNE_INTERVAL_ITEMS;
+
+    /**
+     * To read the cached page.
+     * @return null if the page is not cached or has expired.
+     */
+    ImagesResponse readPage (@NonNull final Context context, @NonNull final String normalizedQuery, final int pageNo) {
+        SearchResultsDao searchResultsDao = getSearchResultsDao(context);
+
+        SearchResultPageEntity pageEntity = searchResultsDao.retrievePage(normalizedQuery, pageNo);
+        if (null == pageEntity || isExpired(pageEntity)) {
+            return null;
+        }
+
+        List<SearchResultItemEntity> itemEntities = searchResultsDao.retrievePageItems(normalizedQuery, pageNo);
+        List<Data> dataList = new ArrayList<>(itemEntities.size());
+        for (SearchResultItemEntity itemEntity : itemEntities) {
+            dataList.add(Data.fromStoredGridItem(itemEntity));
+        }
+
+        ImagesResponse imagesResponse = new ImagesResponse();
+        imagesResponse.setSuccess(true);
+        imagesResponse.setStatus(HttpURLConnection.HTTP_OK);
+        imagesResponse.setDataList(dataList);
+        return imagesResponse;
+    }
+
+    /**
+     * To store the page received from remote, the previously cached copy is replaced.
+     */
+    void writePage (@NonNull final Context context, @NonNull final String normalizedQuery, final int pageNo,
+                    @NonNull final ImagesResponse imagesResponse) {
+        List<Data> dataList = null != imagesResponse.getDataList() ? imagesResponse.getDataList() : Collections.emptyList();
+
+        List<SearchResultItemEntity> itemEntities = new ArrayList<>(dataList.size());
+        for (Data imageData : dataList) {
+            ImageGridItem gridItem = ImageGridItem.from(imageData);
+            if (null != gridItem) {
+                itemEntities.add(toItemEntity(normalizedQuery, pageNo, itemEntities.size(), gridItem, imageData));
+            }
+        }
+
+        SearchResultPageEntity pageEntity = new SearchResultPageEntity();
+        pageEntity.setNormalizedQuery(normalizedQuery);
+        pageEntity.setPageNo(pageNo);
+        pageEntity.setFetchedAtMillis(System.currentTimeMillis());
+        pageEntity.setItemCount(itemEntities.size());
+
+        getSearchResultsDao(context).replacePage(pageEntity, itemEntities);
+        mItemRowsSinceLastPrune += itemEntities.size();
+    }
+
+    /**
+     * To delete the expired pages, and the oldest pages beyond the max. item rows,
+     * once enough item rows are written since the last prune. Otherwise, it returns without touching the database.
+     */
+    void pruneIfNeeded (@NonNull final Context context) {
+        if (mItemRowsSinceLastPrune < CACHED_SEARCH_RESULT_PRUNE_INTERVAL_ITEMS) {
+            return;
+        }
+
+        mItemRowsSinceLastPrune = 0;
+        getSearchResultsDao(context).prune(System.currentTimeMillis() - MAX_CACHED_SEARCH_RESULT_AGE_MILLIS,
+                MAX_CACHED_SEARCH_RESULT_ITEMS);
+    }
+
+    private static boolean isExpired (@NonNull final SearchResultPageEntity pageEntity) {
+        return pageEntity.getFetchedAtMillis() < System.currentTimeMillis() - MAX_CACHED_SEARCH_RESULT_AGE_MILLIS;
+    }
+
+    private static SearchResultsDao getSearchResultsDao (@NonNull final Context context) {
+        return ImagesSearchDatabaseHelper.getsDatabaseInstance(context).searchResultsDao();
+    }
+
+    private static SearchResultItemEntity toItemEntity (@NonNull final String normalizedQuery, final int pageNo,
+                                                        final int position, @NonNull final ImageGridItem gridItem,
+                                                        @NonNull final Data imageData) {
+        SearchResultItemEntity itemEntity = new SearchResultItemEntity();
+        itemEntity.setNormalizedQuery(normalizedQuery);
+        itemEntity.setPageNo(pageNo);
+        itemEntity.setPosition(position);
+        itemEntity.setImageID(gridItem.getId());
+        itemEntity.setTitle(gridItem.getTitle());
+        itemEntity.setCover(gridItem.getCover());
+        itemEntity.setCoverWidth(gridItem.getCoverWidth());
+        itemEntity.setCoverHeight(gridItem.getCoverHeight());
+        itemEntity.setSection(gridItem.getSection());
+        itemEntity.setTopic(gridItem.getTopic());
+        itemEntity.setAccountUrl(gridItem.getAccountUrl());
+        itemEntity.setAnimated(gridItem.isAnimated());
+        itemEntity.setHasSound(gridItem.hasSound());
+        itemEntity.setVideoUrl(gridItem.getVideoUrl());
+
+        // Kept to refine the query over the cached page, same as over the page received from remote.
+        itemEntity.setDescription(imageData.getDescription() instanceof String ? (String) imageData.getDescription() : null);
+        itemEntity.setTags(imageData.getJoinedTagNames());
+        return itemEntity;
+    }
+}
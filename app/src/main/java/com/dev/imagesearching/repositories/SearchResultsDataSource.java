@@ -0,0 +1,317 @@
+package com.dev.imagesearching.repositories;
+
+import com.dev.imagesearching.models.Data;
+import com.dev.imagesearching.models.ImageGridItem;
+import com.dev.imagesearching.models.ImagesResponse;
+import com.dev.imagesearching.models.PageLoadState;
+import com.dev.imagesearching.models.SearchPageResult;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Observer;
+import androidx.paging.ItemKeyedDataSource;
+
+import static com.dev.imagesearching.db.DBConstants.MAX_LOCAL_MATCHES;
+import static com.dev.imagesearching.utils.NetworkConstants.SEARCH_FIRST_PAGE_NO;
+
+/**
+ * (c) All rights reserved.
+ *
+ * Data source of the search results of a single keyword, loads the Imgur pages through the repository.
+ *
+ * Items are keyed by their stable id, and the page which first delivered each item is remembered,
+ * so that the pages dropped from the memory can be loaded again in either direction.
+ * An item repeated by a later page is kept only in its first page.
+ * For a recent query, the initial load includes all of its pages still held in memory.
+ * Otherwise the local matches are displayed while the first page is pending, i.e. the images of the previous keyword
+ * if this keyword refines it, else the matches of the local search index. Once the first page arrives, the next data source
+ * displays it followed by the local matches missing from it, so the images common to both keep their cells and the other
+ * matches stay below the page. The local matches are kept if the first page can't be loaded, e.g. offline.
+ *
+ * Loads are requested and completed on the main thread, the data source is invalidated when the keyword changes.
+ */
+class SearchResultsDataSource extends ItemKeyedDataSource<Long, ImageGridItem> {
+
+    private final ImagesDataRepository mImagesDataRepository;
+    private final String mKeyword;
+
+    // Keyword searched before this one, its loaded images are filtered if this keyword refines it.
+    private final String mPreviousKeyword;
+
+    // Max. pages held by the paged list, the initial load of a recent query never goes beyond it.
+    private final int mMaxInMemoryPages;
+
+    // Local matches displayed by the previous data source of this keyword, appended to the pages of the initial load.
+    private final List<ImageGridItem> mCarriedLocalItems;
+
+    // Local matches displayed by this data source, carried over to the next one once the first page arrives.
+    private volatile List<ImageGridItem> mLocalItems = Collections.emptyList();
+
+    // Page number which first delivered the item, keyed by the item stable id.
+    private final Map<Long, Integer> mItemPageNumbers = new ConcurrentHashMap<>();
+
+    private final MutableLiveData<PageLoadState> mPageLoadStateLiveData = new MutableLiveData<>();
+
+    // Repeats the last failed load, null if nothing has failed.
+    private Runnable mRetryAction;
+
+    // Identify if the initial load is delivered, and if it is of the local matches instead of the first page.
+    private boolean mIsInitialLoadDelivered;
+    private boolean mIsServedLocally;
+
+    SearchResultsDataSource(@NonNull final ImagesDataRepository imagesDataRepository, @NonNull final String keyword,
+                            final String previousKeyword, final int maxInMemoryPages,
+                            @NonNull final List<ImageGridItem> carriedLocalItems) {
+        mImagesDataRepository = imagesDataRepository;
+        mKeyword = keyword;
+        mPreviousKeyword = previousKeyword;
+        mMaxInMemoryPages = maxInMemoryPages;
+        mCarriedLocalItems = carriedLocalItems;
+    }
+
+    @Override
+    public void loadInitial(@NonNull LoadInitialParams<Long> params, @NonNull LoadInitialCallback<ImageGridItem> callback) {
+
+        // Results of a recent query are served from memory at once, nothing to match locally.
+        if (null != mImagesDataRepository.getRecentImagesPage(SEARCH_FIRST_PAGE_NO, mKeyword)) {
+            loadPage(SEARCH_FIRST_PAGE_NO, 1, true,
+                    firstPageItems -> callback.onResult(appendCarriedLocalItems(appendRecentPages(firstPageItems))),
+                    () -> loadInitial(params, callback));
+            return;
+        }
+
+        // Displaying the local matches while the first page is pending, these stay as the results if it fails, e.g. offline.
+        mImagesDataRepository.findLocalMatches(mKeyword, mPreviousKeyword, MAX_LOCAL_MATCHES, matches -> {
+            if (isInvalid() || mIsInitialLoadDelivered || matches.isEmpty()) {
+                return;
+            }
+
+            mIsInitialLoadDelivered = true;
+            mIsServedLocally = true;
+            mLocalItems = toLocalItems(matches);
+            callback.onResult(mLocalItems);
+        });
+
+        // Once the local matches are displayed, the first page can only be added to them through a new data source,
+        // which finds it in memory and is handed the local matches.
+        loadPage(SEARCH_FIRST_PAGE_NO, 1, true, firstPageItems -> {
+                    if (mIsInitialLoadDelivered) {
+                        invalidate();
+                    } else {
+                        mIsInitialLoadDelivered = true;
+                        callback.onResult(appendRecentPages(firstPageItems));
+                    }
+                },
+                () -> {
+                    if (mIsInitialLoadDelivered) {
+                        invalidate();
+                    } else {
+                        loadInitial(params, callback);
+                    }
+                });
+    }
+
+    /**
+     * To convert the local matches into grid items, they belong to no page.
+     */
+    private List<ImageGridItem> toLocalItems (@NonNull final List<Data> matches) {
+        List<ImageGridItem> localItems = new ArrayList<>(matches.size());
+        for (Data imageData : matches) {
+            ImageGridItem gridItem = ImageGridItem.from(imageData);
+            if (null != gridItem && !containsItem(localItems, gridItem)) {
+                localItems.add(gridItem);
+            }
+        }
+        return localItems;
+    }
+
+    /**
+     * To append the following pages already loaded for the recent query, so that its scroll position can be restored at once.
+     */
+    private List<ImageGridItem> appendRecentPages (@NonNull final List<ImageGridItem> firstPageItems) {
+        List<ImageGridItem> initialItems = new ArrayList<>(firstPageItems);
+
+        for (int pageNo = SEARCH_FIRST_PAGE_NO + 1; pageNo < SEARCH_FIRST_PAGE_NO + mMaxInMemoryPages; pageNo++) {
+            ImagesResponse recentPage = mImagesDataRepository.getRecentImagesPage(pageNo, mKeyword);
+            if (null == recentPage || null == recentPage.getDataList() || recentPage.getDataList().isEmpty()) {
+                break;
+            }
+            initialItems.addAll(toPageItems(pageNo, recentPage.getDataList()));
+        }
+        return initialItems;
+    }
+
+    /**
+     * To append the local matches of the previous data source which are missing from the initial pages.
+     * These belong to the last initial page, so the next page is loaded after them and never repeats them.
+     */
+    private List<ImageGridItem> appendCarriedLocalItems (@NonNull final List<ImageGridItem> initialItems) {
+        if (mCarriedLocalItems.isEmpty() || initialItems.isEmpty()) {
+            return initialItems;
+        }
+
+        int lastPageNo = getPageNumber(initialItems.get(initialItems.size() - 1).getStableId());
+        for (ImageGridItem localItem : mCarriedLocalItems) {
+            if (!mItemPageNumbers.containsKey(localItem.getStableId())) {
+                mItemPageNumbers.put(localItem.getStableId(), lastPageNo);
+                initialItems.add(localItem);
+            }
+        }
+        return initialItems;
+    }
+
+    @Override
+    public void loadAfter(@NonNull LoadParams<Long> params, @NonNull LoadCallback<ImageGridItem> callback) {
+        // Local matches are not paged.
+        if (mIsServedLocally) {
+            callback.onResult(Collections.emptyList());
+            return;
+        }
+
+        loadPage(getPageNumber(params.key) + 1, 1, false, callback::onResult,
+                () -> loadAfter(params, callback));
+    }
+
+    @Override
+    public void loadBefore(@NonNull LoadParams<Long> params, @NonNull LoadCallback<ImageGridItem> callback) {
+        // Only the pages dropped from the memory are loaded before, the first page has nothing before it.
+        int pageNo = getPageNumber(params.key) - 1;
+        if (mIsServedLocally || pageNo < SEARCH_FIRST_PAGE_NO) {
+            callback.onResult(Collections.emptyList());
+            return;
+        }
+
+        loadPage(pageNo, -1, false, callback::onResult,
+                () -> loadBefore(params, callback));
+    }
+
+    @NonNull
+    @Override
+    public Long getKey(@NonNull ImageGridItem item) {
+        return item.getStableId();
+    }
+
+    /**
+     * Receives the items of a loaded page.
+     */
+    private interface PageItemsReceiver {
+        void onItemsLoaded (@NonNull List<ImageGridItem> pageItems);
+    }
+
+    /**
+     * To load the given page, the pages with only the already loaded items are skipped in the given direction.
+     *
+     * @param direction   1 to skip towards the next pages, -1 towards the previous ones.
+     * @param retryAction repeats the whole load if it fails.
+     */
+    private void loadPage (final int pageNo, final int direction, final boolean isInitialLoad,
+                           @NonNull final PageItemsReceiver pageItemsReceiver, @NonNull final Runnable retryAction) {
+
+        // Return as the keyword has been changed, the repository has moved on to the newer one.
+        if (isInvalid()) {
+            return;
+        }
+
+        mRetryAction = null;
+        mPageLoadStateLiveData.setValue(PageLoadState.loading(isInitialLoad));
+
+        // Each page is observed on its own result stream, which emits only once.
+        LiveData<SearchPageResult> pageResultStream = mImagesDataRepository.loadImagesPage(pageNo, mKeyword);
+        pageResultStream.observeForever(new Observer<SearchPageResult>() {
+            @Override
+            public void onChanged(SearchPageResult pageResult) {
+                pageResultStream.removeObserver(this);
+                if (isInvalid() || null == pageResult) {
+                    return;
+                }
+
+                if (!pageResult.isSuccessful()) {
+                    mRetryAction = retryAction;
+                    mPageLoadStateLiveData.setValue(PageLoadState.failed(isInitialLoad, pageResult.getErrorCode()));
+                    return;
+                }
+
+                List<Data> dataList = pageResult.getImagesResponse().getDataList();
+                List<ImageGridItem> pageItems = toPageItems(pageResult.getPageNo(), dataList);
+
+                int nextPageNo = pageResult.getPageNo() + direction;
+                if (pageItems.isEmpty() && !dataList.isEmpty() && nextPageNo >= SEARCH_FIRST_PAGE_NO) {
+                    // Every item of the page is already loaded with another page, moving on to the next one.
+                    loadPage(nextPageNo, direction, isInitialLoad, pageItemsReceiver, retryAction);
+                    return;
+                }
+
+                mPageLoadStateLiveData.setValue(PageLoadState.loaded(isInitialLoad));
+                pageItemsReceiver.onItemsLoaded(pageItems);
+            }
+        });
+    }
+
+    /**
+     * To convert the page data into grid items, keeping only the items delivered first by this page.
+     */
+    private List<ImageGridItem> toPageItems (final int pageNo, @NonNull final List<Data> dataList) {
+        List<ImageGridItem> pageItems = new ArrayList<>(dataList.size());
+
+        for (Data imageData : dataList) {
+            ImageGridItem gridItem = ImageGridItem.from(imageData);
+            if (null == gridItem) {
+                continue;
+            }
+
+            Integer itemPageNo = mItemPageNumbers.get(gridItem.getStableId());
+            if (null == itemPageNo) {
+                mItemPageNumbers.put(gridItem.getStableId(), pageNo);
+                pageItems.add(gridItem);
+            } else if (pageNo == itemPageNo && !containsItem(pageItems, gridItem)) {
+                // Page is loaded again after being dropped from the memory.
+                pageItems.add(gridItem);
+            }
+        }
+        return pageItems;
+    }
+
+    private static boolean containsItem (@NonNull final List<ImageGridItem> pageItems, @NonNull final ImageGridItem gridItem) {
+        for (ImageGridItem pageItem : pageItems) {
+            if (pageItem.getStableId() == gridItem.getStableId()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int getPageNumber (final Long itemKey) {
+        Integer pageNo = mItemPageNumbers.get(itemKey);
+        return null != pageNo ? pageNo : SEARCH_FIRST_PAGE_NO;
+    }
+
+    /**
+     * To repeat the last failed load, if any.
+     */
+    void retry () {
+        Runnable retryAction = mRetryAction;
+        mRetryAction = null;
+
+        if (null != retryAction) {
+            retryAction.run();
+        }
+    }
+
+    LiveData<PageLoadState> getPageLoadStateObservable () {
+        return mPageLoadStateLiveData;
+    }
+
+    /**
+     * @return local matches displayed by this data source, empty if it displays the pages.
+     */
+    List<ImageGridItem> getLocalItems () {
+        return mLocalItems;
+    }
+}
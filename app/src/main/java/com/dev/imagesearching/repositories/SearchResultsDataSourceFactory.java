@@ -0,0 +1,89 @@
+package com.dev.imagesearching.repositories;
+
+import com.dev.imagesearching.models.ImageGridItem;
+import com.dev.imagesearching.models.PageLoadState;
+
+import java.util.Collections;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
+import androidx.paging.DataSource;
+
+/**
+ * (c) All rights reserved.
+ *
+ * Creates the data sources of the search results of a single keyword,
+ * a new data source is created whenever the current one is invalidated, e.g. to refresh the results.
+ */
+public class SearchResultsDataSourceFactory extends DataSource.Factory<Long, ImageGridItem> {
+
+    private final ImagesDataRepository mImagesDataRepository;
+    private final String mKeyword;
+    private final String mPreviousKeyword;
+    private final int mMaxInMemoryPages;
+
+    // Data source which is currently loading the pages, and its observable for the page load states.
+    private volatile SearchResultsDataSource mCurrentDataSource;
+    private final MutableLiveData<SearchResultsDataSource> mDataSourceLiveData = new MutableLiveData<>();
+
+    /**
+     * @param previousKeyword  keyword searched before this one, its loaded images are displayed at once if this keyword refines it.
+     * @param maxInMemoryPages max. pages held by the paged list, a recent query is restored with up to this many pages.
+     */
+    public SearchResultsDataSourceFactory(@NonNull final ImagesDataRepository imagesDataRepository, @NonNull final String keyword,
+                                          final String previousKeyword, final int maxInMemoryPages) {
+        mImagesDataRepository = imagesDataRepository;
+        mKeyword = keyword;
+        mPreviousKeyword = previousKeyword;
+        mMaxInMemoryPages = maxInMemoryPages;
+    }
+
+    @NonNull
+    @Override
+    public DataSource<Long, ImageGridItem> create() {
+        // Local matches displayed by the invalidated data source are kept along with the pages of the new one.
+        SearchResultsDataSource previousDataSource = mCurrentDataSource;
+        List<ImageGridItem> carriedLocalItems = null != previousDataSource
+                ? previousDataSource.getLocalItems() : Collections.emptyList();
+
+        SearchResultsDataSource dataSource = new SearchResultsDataSource(mImagesDataRepository, mKeyword, mPreviousKeyword,
+                mMaxInMemoryPages, carriedLocalItems);
+        mCurrentDataSource = dataSource;
+        mDataSourceLiveData.postValue(dataSource);
+        return dataSource;
+    }
+
+    /**
+     * To observe the page loads of the current data source.
+     */
+    public LiveData<PageLoadState> getPageLoadStateObservable () {
+        return Transformations.switchMap(mDataSourceLiveData, SearchResultsDataSource::getPageLoadStateObservable);
+    }
+
+    /**
+     * To repeat the last failed page load.
+     */
+    public void retry () {
+        SearchResultsDataSource dataSource = mCurrentDataSource;
+        if (null != dataSource) {
+            dataSource.retry();
+        }
+    }
+
+    /**
+     * To stop loading the pages of this keyword, e.g. when a new keyword is searched.
+     */
+    public void invalidate () {
+        SearchResultsDataSource dataSource = mCurrentDataSource;
+        if (null != dataSource) {
+            dataSource.invalidate();
+        }
+    }
+
+    public String getKeyword () {
+        return mKeyword;
+    }
+}
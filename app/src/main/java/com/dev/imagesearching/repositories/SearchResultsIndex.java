@@ -0,0 +1,166 @@
+package com.dev.imagesearching.repositories;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.TextUtils;
+
+import com.dev.imagesearching.db.ImagesSearchDatabaseHelper;
+import com.dev.imagesearching.db.dao.SearchIndexDao;
+import com.dev.imagesearching.db.entities.IndexedImageEntity;
+import com.dev.imagesearching.models.Data;
+import com.dev.imagesearching.models.ImageGridItem;
+import com.dev.imagesearching.utils.AppExecutors;
+import com.dev.imagesearching.utils.AppUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+
+import static com.dev.imagesearching.db.DBConstants.INDEXED_IMAGES_PRUNE_INTERVAL;
+import static com.dev.imagesearching.db.DBConstants.MAX_INDEXED_IMAGES;
+
+/**
+ * (c) All rights reserved.
+ *
+ * Local full-text index over the title, description, section and tags of every image received with the search results.
+ * It answers the queries while the network request is pending, and in full while offline.
+ *
+ * Received images are prepared for the index on the compute pool, buffered and written in batches,
+ * in a single transaction on the database write thread, so that the indexing never competes with the scrolling
+ * for the CPU or the database. The least recently received images beyond the max. are pruned once enough images
+ * are written, instead of with every batch.
+ */
+class SearchResultsIndex {
+
+    // Buffered images are written once this delay passes, or at once when the batch is full.
+    private static final long BATCH_DELAY_MILLIS = 1000L;
+    private static final int MAX_BATCH_SIZE = 300;
+
+    private final AppExecutors mExecutors = AppExecutors.getInstance();
+
+    // Delays the write of the partial batch.
+    private final Handler mBatchDelayHandler = new Handler(Looper.getMainLooper());
+
+    // Images received but not yet written to the index.
+    private final List<IndexedImageEntity> mPendingImages = new ArrayList<>();
+    private boolean mIsFlushScheduled;
+
+    // Images written since the last prune, starts past the interval so that the first batch of the session prunes.
+    // Only touched on the database write thread.
+    private int mImagesSinceLastPrune = INDEXED_IMAGES_PRUNE_INTERVAL;
+
+    /**
+     * To add the received images to the index, they are written with the next batch.
+     */
+    void index (@NonNull final Context context, final List<Data> dataList) {
+        if (null == dataList || dataList.isEmpty()) {
+            return;
+        }
+
+        long indexedAtMillis = System.currentTimeMillis();
+        mExecutors.compute().execute(() -> {
+            List<IndexedImageEntity> imageEntities = new ArrayList<>(dataList.size());
+            for (Data imageData : dataList) {
+                IndexedImageEntity imageEntity = toImageEntity(imageData, indexedAtMillis);
+                if (null != imageEntity) {
+                    imageEntities.add(imageEntity);
+                }
+            }
+
+            synchronized (mPendingImages) {
+                mPendingImages.addAll(imageEntities);
+
+                if (mPendingImages.size() >= MAX_BATCH_SIZE) {
+                    mExecutors.dbWrite().execute(() -> flush(context));
+                } else if (!mIsFlushScheduled) {
+                    mIsFlushScheduled = true;
+                    mBatchDelayHandler.postDelayed(() -> mExecutors.dbWrite().execute(() -> flush(context)), BATCH_DELAY_MILLIS);
+                }
+            }
+        });
+    }
+
+    /**
+     * To find the indexed images matching all the terms of the query, most recently received first.
+     * Blocks on the database, must be called on the worker thread.
+     */
+    List<Data> findMatches (@NonNull final Context context, final String keyword, final int limit) {
+        String matchQuery = prepareMatchQuery(keyword);
+        if (TextUtils.isEmpty(matchQuery)) {
+            return Collections.emptyList();
+        }
+
+        List<IndexedImageEntity> imageEntities = ImagesSearchDatabaseHelper.getsDatabaseInstance(context)
+                .searchIndexDao().findMatches(matchQuery, limit);
+
+        List<Data> matches = new ArrayList<>(imageEntities.size());
+        for (IndexedImageEntity imageEntity : imageEntities) {
+            matches.add(Data.fromStoredGridItem(imageEntity));
+        }
+        return matches;
+    }
+
+    private void flush (@NonNull final Context context) {
+        List<IndexedImageEntity> batch;
+        synchronized (mPendingImages) {
+            mIsFlushScheduled = false;
+            if (mPendingImages.isEmpty()) {
+                return;
+            }
+            batch = new ArrayList<>(mPendingImages);
+            mPendingImages.clear();
+        }
+
+        SearchIndexDao searchIndexDao = ImagesSearchDatabaseHelper.getsDatabaseInstance(context).searchIndexDao();
+        searchIndexDao.indexImages(batch);
+
+        mImagesSinceLastPrune += batch.size();
+        if (mImagesSinceLastPrune >= INDEXED_IMAGES_PRUNE_INTERVAL) {
+            mImagesSinceLastPrune = 0;
+            searchIndexDao.deleteLeastRecentlyIndexed(MAX_INDEXED_IMAGES);
+        }
+    }
+
+    /**
+     * To prepare the FTS4 query which matches every term of the keyword as a prefix, e.g. "cats sleep" to "cats* sleep*".
+     * Operators and the punctuation are dropped, so that the user input never breaks the query syntax.
+     */
+    private static String prepareMatchQuery (final String keyword) {
+        StringBuilder matchQuery = new StringBuilder();
+
+        for (String term : AppUtils.tokenizeSearchText(keyword)) {
+            if (matchQuery.length() > 0) {
+                matchQuery.append(' ');
+            }
+            matchQuery.append(term).append('*');
+        }
+        return matchQuery.toString();
+    }
+
+    private static IndexedImageEntity toImageEntity (final Data imageData, final long indexedAtMillis) {
+        ImageGridItem gridItem = ImageGridItem.from(imageData);
+        if (null == gridItem || TextUtils.isEmpty(gridItem.getId())) {
+            return null;
+        }
+
+        IndexedImageEntity imageEntity = new IndexedImageEntity();
+        imageEntity.setImageID(gridItem.getId());
+        imageEntity.setTitle(gridItem.getTitle());
+        imageEntity.setDescription(imageData.getDescription() instanceof String ? (String) imageData.getDescription() : null);
+        imageEntity.setSection(gridItem.getSection());
+        imageEntity.setTags(imageData.getJoinedTagNames());
+        imageEntity.setCover(gridItem.getCover());
+        imageEntity.setCoverWidth(gridItem.getCoverWidth());
+        imageEntity.setCoverHeight(gridItem.getCoverHeight());
+        imageEntity.setTopic(gridItem.getTopic());
+        imageEntity.setAccountUrl(gridItem.getAccountUrl());
+        imageEntity.setAnimated(gridItem.isAnimated());
+        imageEntity.setHasSound(gridItem.hasSound());
+        imageEntity.setVideoUrl(gridItem.getVideoUrl());
+        imageEntity.setIndexedAtMillis(indexedAtMillis);
+        return imageEntity;
+    }
+}
@@ -0,0 +1,102 @@
+package com.dev.imagesearching.repositories;
+
+import android.content.Context;
+import android.text.TextUtils;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.request.FutureTarget;
+import com.dev.imagesearching.models.Data;
+import com.dev.imagesearching.models.ImageGridItem;
+import com.dev.imagesearching.utils.ImgurImageUrlResolver;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+
+/**
+ * (c) All rights reserved.
+ *
+ * Downloads the thumbnails of the prefetched pages into the Glide disk cache,
+ * so that the grid is served from the cache when the user scrolls to them.
+ *
+ * Downloads are made with the low priority, and can be cancelled when the query changes.
+ */
+class ThumbnailCacheWarmer {
+
+    // Downloads which are not yet cancelled or completed.
+    private final List<FutureTarget<File>> mWarmingTargets = new ArrayList<>();
+
+    // Size of the grid cell in pixels, so that the same thumbnail tier as the grid is downloaded.
+    private volatile int mThumbnailSizePx;
+
+    // Identify if the grid cells are sized from the image aspect ratios.
+    private volatile boolean mIsStaggeredGrid;
+
+    /**
+     * To set the size of the thumbnails displayed by the grid.
+     */
+    void setThumbnailSize(final int thumbnailSizePx) {
+        mThumbnailSizePx = thumbnailSizePx;
+    }
+
+    /**
+     * To set if the grid cells are sized from the image aspect ratios, the tier is then selected for the cell height as well.
+     */
+    void setStaggeredGrid(final boolean isStaggeredGrid) {
+        mIsStaggeredGrid = isStaggeredGrid;
+    }
+
+    /**
+     * To download the thumbnails of the given images data into the disk cache.
+     */
+    void warm(@NonNull final Context context, final List<Data> imagesDataList) {
+        if (null == imagesDataList) {
+            return;
+        }
+
+        synchronized (mWarmingTargets) {
+            pruneCompletedTargets();
+
+            for (Data imageData : imagesDataList) {
+                ImageGridItem gridItem = ImageGridItem.from(imageData);
+                String imgURL = null != gridItem
+                        ? ImgurImageUrlResolver.resolve(gridItem.getCover(), mThumbnailSizePx,
+                                mIsStaggeredGrid ? gridItem.getCellHeight(mThumbnailSizePx) : mThumbnailSizePx)
+                        : null;
+
+                if (!TextUtils.isEmpty(imgURL)) {
+
+                    // Download only requests are made with the low priority and bypass the memory cache.
+                    mWarmingTargets.add(Glide.with(context)
+                            .downloadOnly()
+                            .load(imgURL)
+                            .submit());
+                }
+            }
+        }
+    }
+
+    /**
+     * To cancel all the pending downloads, e.g. when the query changes.
+     */
+    void cancelAll(@NonNull final Context context) {
+        synchronized (mWarmingTargets) {
+            for (FutureTarget<File> warmingTarget : mWarmingTargets) {
+                Glide.with(context).clear(warmingTarget);
+            }
+            mWarmingTargets.clear();
+        }
+    }
+
+    private void pruneCompletedTargets() {
+        Iterator<FutureTarget<File>> iterator = mWarmingTargets.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().isDone()) {
+                iterator.remove();
+            }
+        }
+    }
+}
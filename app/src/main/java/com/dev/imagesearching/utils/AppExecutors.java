@@ -0,0 +1,82 @@
+package com.dev.imagesearching.utils;
+
+import android.os.Process;
+import android.util.Log;
+
+/**
+ * (c) All rights reserved.
+ *
+ * Worker thread pools of the app, split by the kind of work so that a slow task never holds up a different kind of task,
+ * e.g. a comment write never delays the comment reads of the details screen.
+ *
+ * - Database reads, several threads as the database is read concurrently.
+ * - Database writes, a single thread as the database has a single writer, which also keeps the writes in order.
+ * - Parsing/ indexing, the CPU bound work, e.g. matching the loaded results and indexing them.
+ * - Prefetch, the speculative work, at the lowest thread priority so that it only runs on the otherwise idle cores.
+ *
+ * Pools are sized to the core count, and their threads are named and run below the UI priority.
+ */
+public class AppExecutors {
+
+    private static final String TAG = AppExecutors.class.getSimpleName();
+
+    private static final int CPU_COUNT = Runtime.getRuntime().availableProcessors();
+
+    private static volatile AppExecutors sAppExecutors;
+
+    private final InstrumentedThreadPoolExecutor mDBReadExecutor;
+    private final InstrumentedThreadPoolExecutor mDBWriteExecutor;
+    private final InstrumentedThreadPoolExecutor mComputeExecutor;
+    private final InstrumentedThreadPoolExecutor mPrefetchExecutor;
+
+    private AppExecutors() {
+        mDBReadExecutor = new InstrumentedThreadPoolExecutor("db-read",
+                Math.max(2, Math.min(4, CPU_COUNT / 2)), Process.THREAD_PRIORITY_BACKGROUND);
+        mDBWriteExecutor = new InstrumentedThreadPoolExecutor("db-write", 1, Process.THREAD_PRIORITY_BACKGROUND);
+        mComputeExecutor = new InstrumentedThreadPoolExecutor("compute",
+                Math.max(1, Math.min(4, CPU_COUNT - 1)), Process.THREAD_PRIORITY_BACKGROUND);
+        mPrefetchExecutor = new InstrumentedThreadPoolExecutor("prefetch", 1, Process.THREAD_PRIORITY_LOWEST);
+    }
+
+    public static AppExecutors getInstance() {
+
+        // Using the lazy loading with double lock, to avoid multiple instance creation from different threads.
+        if (null == sAppExecutors) {
+
+            synchronized (AppExecutors.class) {
+
+                if (null == sAppExecutors) {
+                    sAppExecutors = new AppExecutors();
+                }
+            }
+        }
+
+        return sAppExecutors;
+    }
+
+    public InstrumentedThreadPoolExecutor dbRead () {
+        return mDBReadExecutor;
+    }
+
+    public InstrumentedThreadPoolExecutor dbWrite () {
+        return mDBWriteExecutor;
+    }
+
+    public InstrumentedThreadPoolExecutor compute () {
+        return mComputeExecutor;
+    }
+
+    public InstrumentedThreadPoolExecutor prefetch () {
+        return mPrefetchExecutor;
+    }
+
+    /**
+     * To log the contention of all the pools, e.g. while profiling under load.
+     */
+    public void logMetrics () {
+        Log.d(TAG, mDBReadExecutor.describeMetrics());
+        Log.d(TAG, mDBWriteExecutor.describeMetrics());
+        Log.d(TAG, mComputeExecutor.describeMetrics());
+        Log.d(TAG, mPrefetchExecutor.describeMetrics());
+    }
+}
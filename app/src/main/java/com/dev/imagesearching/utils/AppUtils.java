@@ -6,6 +6,10 @@ import android.net.ConnectivityManager;
 import android.view.View;
 import android.view.inputmethod.InputMethodManager;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
 /**
  * (c) All rights reserved.
  *
@@ -13,6 +17,9 @@ import android.view.inputmethod.InputMethodManager;
  */
 public class AppUtils {
 
+    // Words are separated by anything other than the letters and digits.
+    private static final String WORD_SEPARATOR_REGEX = "[^\\p{L}\\p{Nd}]+";
+
     /**
      * Method to hide the soft input keyboard.
      */
@@ -28,4 +35,30 @@ public class AppUtils {
         ConnectivityManager connectivityManager = ((ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE));
         return connectivityManager.getActiveNetworkInfo() != null && connectivityManager.getActiveNetworkInfo().isConnected();
     }
+
+    /**
+     * To normalize the search keyword, so that the equivalent queries map to the same request.
+     * E.g. " Cats  " and "cats" are considered as same query.
+     */
+    public static String normalizeSearchQuery(final String query) {
+        if (null == query) {
+            return "";
+        }
+        return query.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * To split the query, or any text to be matched against it, into its normalized words.
+     * Both the local search index and the refinement filter match these words, so that they agree on what matches.
+     * E.g. " Cats-Sleeping! " gives "cats" and "sleeping".
+     */
+    public static List<String> tokenizeSearchText(final String text) {
+        List<String> words = new ArrayList<>();
+        for (String word : normalizeSearchQuery(text).split(WORD_SEPARATOR_REGEX)) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
 }
@@ -1,4 +1,6 @@
 package com.dev.imagesearching.utils;
+import android.os.Handler;
+import android.os.Looper;
 import android.os.SystemClock;
 import android.util.Log;
 
@@ -7,14 +9,37 @@ import androidx.appcompat.widget.SearchView;
 /**
  * (c) All rights reserved.
  *
- * To make the a debounce in the search field for a given period of time.
+ * To make the trailing-edge debounce in the search field, the query is dispatched once the user pauses typing.
+ *
+ * The pause is adapted to the measured typing speed, i.e. a multiple of the average gap between the keystrokes,
+ * so that the fast typists wait less and the slow ones are not searched mid-word.
+ * The debounced queries are de-duplicated after normalization, a query same as the last dispatched one is not dispatched again.
+ * Submitting the query dispatches it at once, even if it is unchanged, e.g. to retry it.
  */
 public abstract class DebouncedQueryTextListener implements SearchView.OnQueryTextListener {
 
     private static final String TAG = "DebouncedOnQueryTextLis";
-    private static final long THRESHOLD_MILLIS = 250L;
-    private long lastClickMillis;
-    private int calls = 0;
+
+    // Bounds of the pause after the last keystroke.
+    private static final long MIN_DEBOUNCE_MILLIS = 150L;
+    private static final long MAX_DEBOUNCE_MILLIS = 600L;
+
+    // Pause waited for, as a multiple of the average keystroke gap.
+    private static final float KEYSTROKE_GAP_MULTIPLIER = 2.5f;
+
+    // Weight of the latest keystroke gap in the average.
+    private static final float KEYSTROKE_GAP_WEIGHT = 0.3f;
+
+    private final Handler mDebounceHandler = new Handler(Looper.getMainLooper());
+
+    // Average gap between the keystrokes of a burst, starts with the moderate typing speed.
+    private float mAverageKeystrokeGapMillis = 120f;
+    private long mLastKeystrokeMillis;
+
+    private String mPendingQuery;
+    private String mLastDispatchedQuery;
+
+    private final Runnable mDispatchPendingQuery = () -> dispatchPendingQuery(false);
 
     protected DebouncedQueryTextListener() {
 
@@ -22,21 +47,76 @@ public abstract class DebouncedQueryTextListener implements SearchView.OnQueryTe
 
     public abstract void onQueryDebounce(String text);
 
+    /**
+     * Called for the query submitted by the user, even if it is same as the last dispatched one.
+     * Handled as the debounced query, unless overridden.
+     */
+    public void onQuerySubmit(String text) {
+        onQueryDebounce(text);
+    }
+
     @Override
     public boolean onQueryTextSubmit(String query) {
+        mDebounceHandler.removeCallbacks(mDispatchPendingQuery);
+        mPendingQuery = query;
+        dispatchPendingQuery(true);
         return true;
     }
 
     @Override
     public boolean onQueryTextChange(String newText) {
         long now = SystemClock.elapsedRealtime();
-        if (now - lastClickMillis > THRESHOLD_MILLIS) {
-            calls += 1;
-            onQueryDebounce(newText);
-            Log.d(TAG, "onQueryTextChange: " + calls);
+        long keystrokeGapMillis = now - mLastKeystrokeMillis;
+        mLastKeystrokeMillis = now;
+
+        // Longer gaps are the pauses between the bursts, not the typing speed.
+        if (keystrokeGapMillis < MAX_DEBOUNCE_MILLIS) {
+            mAverageKeystrokeGapMillis += KEYSTROKE_GAP_WEIGHT * (keystrokeGapMillis - mAverageKeystrokeGapMillis);
         }
-        lastClickMillis = now;
+
+        // Every keystroke restarts the wait, only the query typed last is dispatched.
+        mPendingQuery = newText;
+        mDebounceHandler.removeCallbacks(mDispatchPendingQuery);
+        mDebounceHandler.postDelayed(mDispatchPendingQuery, getDebounceMillis());
         return true;
     }
 
+    /**
+     * To drop the pending query, e.g. when the search field goes away.
+     */
+    public void cancel () {
+        mDebounceHandler.removeCallbacks(mDispatchPendingQuery);
+        mPendingQuery = null;
+    }
+
+    /**
+     * To get the pause waited for after the last keystroke, as per the measured typing speed.
+     */
+    private long getDebounceMillis () {
+        long debounceMillis = Math.round(mAverageKeystrokeGapMillis * KEYSTROKE_GAP_MULTIPLIER);
+        return Math.max(MIN_DEBOUNCE_MILLIS, Math.min(MAX_DEBOUNCE_MILLIS, debounceMillis));
+    }
+
+    /**
+     * @param isSubmitted true if the user submitted the query, it is dispatched even if it is unchanged.
+     */
+    private void dispatchPendingQuery (final boolean isSubmitted) {
+        String query = mPendingQuery;
+        mPendingQuery = null;
+
+        // Blank queries are not searched, the results of the last query stay displayed.
+        String normalizedQuery = AppUtils.normalizeSearchQuery(query);
+        if (normalizedQuery.isEmpty() || (!isSubmitted && normalizedQuery.equals(mLastDispatchedQuery))) {
+            return;
+        }
+
+        mLastDispatchedQuery = normalizedQuery;
+        if (isSubmitted) {
+            Log.d(TAG, "onQuerySubmit: " + normalizedQuery);
+            onQuerySubmit(query);
+        } else {
+            Log.d(TAG, "onQueryDebounce: " + normalizedQuery + ", debounce: " + getDebounceMillis() + " ms");
+            onQueryDebounce(query);
+        }
+    }
 }
@@ -0,0 +1,71 @@
+package com.dev.imagesearching.utils;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * (c) All rights reserved.
+ *
+ * Keeps track of the tap-to-image latency of the details screen,
+ * i.e. time from the tap on grid item till the first image frame is displayed on details screen.
+ */
+public class DetailOpenLatencyTracker {
+
+    private static final String TAG = DetailOpenLatencyTracker.class.getSimpleName();
+
+    // Only the recent samples are kept.
+    private static final int MAX_SAMPLES = 50;
+
+    private static final ArrayDeque<Long> sLatencySamples = new ArrayDeque<>(MAX_SAMPLES);
+
+    private DetailOpenLatencyTracker() {
+    }
+
+    /**
+     * To record the first image frame of a details screen open.
+     *
+     * @param imageID         image displayed on the details screen.
+     * @param tapUptimeMillis {@link SystemClock#uptimeMillis()} of the tap on the grid item.
+     * @param isPlaceholder   true if the first frame is the cached grid thumbnail.
+     * @return latency of the open in milliseconds.
+     */
+    public static long recordFirstFrame(final String imageID, final long tapUptimeMillis, final boolean isPlaceholder) {
+        long firstFrameUptimeMillis = SystemClock.uptimeMillis();
+        long latencyMillis = firstFrameUptimeMillis - tapUptimeMillis;
+
+        synchronized (sLatencySamples) {
+            if (sLatencySamples.size() == MAX_SAMPLES) {
+                sLatencySamples.removeFirst();
+            }
+            sLatencySamples.addLast(latencyMillis);
+        }
+
+        Log.d(TAG, "First frame of " + imageID + " at " + firstFrameUptimeMillis
+                + ", tap-to-image: " + latencyMillis + " ms" + (isPlaceholder ? " (thumbnail placeholder)" : ""));
+
+        return latencyMillis;
+    }
+
+    /**
+     * To get the median tap-to-image latency of the recent opens.
+     * @return -1 if no open is recorded yet.
+     */
+    public static long getMedianLatencyMillis() {
+        List<Long> latencySamples;
+        synchronized (sLatencySamples) {
+            latencySamples = new ArrayList<>(sLatencySamples);
+        }
+
+        if (latencySamples.isEmpty()) {
+            return -1L;
+        }
+
+        Collections.sort(latencySamples);
+        return latencySamples.get(latencySamples.size() / 2);
+    }
+}
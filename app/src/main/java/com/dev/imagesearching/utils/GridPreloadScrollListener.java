@@ -0,0 +1,93 @@
+package com.dev.imagesearching.utils;
+
+import com.bumptech.glide.ListPreloader;
+import com.bumptech.glide.RequestManager;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.recyclerview.widget.StaggeredGridLayoutManager;
+
+/**
+ * (c) All rights reserved.
+ *
+ * Preloads the images ahead of the recycler view scroll, for the grid as well as the staggered grid layout.
+ * The visible range of the layout manager is fed to Glide's {@link ListPreloader}.
+ */
+public class GridPreloadScrollListener extends RecyclerView.OnScrollListener {
+
+    private final ListPreloader<?> mListPreloader;
+
+    // Last visible range fed to the preloader, the preloader is notified only when it changes.
+    private int mLastFirstVisiblePosition = RecyclerView.NO_POSITION;
+    private int mLastVisibleItemCount;
+    private int mLastTotalItemCount;
+
+    // Reused to query the visible positions of every span of the staggered grid.
+    private int[] mSpanPositions;
+
+    public <T> GridPreloadScrollListener(@NonNull RequestManager requestManager,
+                                         @NonNull ListPreloader.PreloadModelProvider<T> preloadModelProvider,
+                                         @NonNull ListPreloader.PreloadSizeProvider<T> preloadSizeProvider,
+                                         int maxPreload) {
+        mListPreloader = new ListPreloader<>(requestManager, preloadModelProvider, preloadSizeProvider, maxPreload);
+    }
+
+    @Override
+    public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+        RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+
+        int firstVisiblePosition;
+        int lastVisiblePosition;
+        if (layoutManager instanceof LinearLayoutManager) {
+            firstVisiblePosition = ((LinearLayoutManager) layoutManager).findFirstVisibleItemPosition();
+            lastVisiblePosition = ((LinearLayoutManager) layoutManager).findLastVisibleItemPosition();
+        } else if (layoutManager instanceof StaggeredGridLayoutManager) {
+            StaggeredGridLayoutManager staggeredGridLayoutManager = (StaggeredGridLayoutManager) layoutManager;
+            if (null == mSpanPositions || mSpanPositions.length != staggeredGridLayoutManager.getSpanCount()) {
+                mSpanPositions = new int[staggeredGridLayoutManager.getSpanCount()];
+            }
+            firstVisiblePosition = min(staggeredGridLayoutManager.findFirstVisibleItemPositions(mSpanPositions));
+            lastVisiblePosition = max(staggeredGridLayoutManager.findLastVisibleItemPositions(mSpanPositions));
+        } else {
+            return;
+        }
+
+        if (RecyclerView.NO_POSITION == firstVisiblePosition || RecyclerView.NO_POSITION == lastVisiblePosition) {
+            return;
+        }
+
+        int visibleItemCount = lastVisiblePosition - firstVisiblePosition + 1;
+        int totalItemCount = layoutManager.getItemCount();
+
+        if (firstVisiblePosition != mLastFirstVisiblePosition
+                || visibleItemCount != mLastVisibleItemCount
+                || totalItemCount != mLastTotalItemCount) {
+
+            mLastFirstVisiblePosition = firstVisiblePosition;
+            mLastVisibleItemCount = visibleItemCount;
+            mLastTotalItemCount = totalItemCount;
+
+            // List view is not used by the preloader, it only needs the visible range.
+            mListPreloader.onScroll(null, firstVisiblePosition, visibleItemCount, totalItemCount);
+        }
+    }
+
+    private static int min(@NonNull final int[] positions) {
+        int minPosition = RecyclerView.NO_POSITION;
+        for (int position : positions) {
+            if (RecyclerView.NO_POSITION != position && (RecyclerView.NO_POSITION == minPosition || position < minPosition)) {
+                minPosition = position;
+            }
+        }
+        return minPosition;
+    }
+
+    private static int max(@NonNull final int[] positions) {
+        int maxPosition = RecyclerView.NO_POSITION;
+        for (int position : positions) {
+            maxPosition = Math.max(maxPosition, position);
+        }
+        return maxPosition;
+    }
+}
@@ -0,0 +1,55 @@
+package com.dev.imagesearching.utils;
+
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.resource.bitmap.DownsampleStrategy;
+import com.bumptech.glide.request.RequestOptions;
+
+/**
+ * (c) All rights reserved.
+ *
+ * Glide request options used while loading the images.
+ *
+ * The same options must be used for the same image across the screens and the preloaders,
+ * as these are part of the memory cache key.
+ *
+ * Animations are never decoded, animated images are displayed as their first frame and played as mp4 on details screen.
+ */
+public class ImageRequestOptions {
+
+    private ImageRequestOptions() {
+    }
+
+    /**
+     * Options for the grid thumbnails, decoded with the low memory pixel format and downsampled to the cell size.
+     * @param cellSizePx width of a grid cell in pixels.
+     */
+    public static RequestOptions gridThumbnail(final int cellSizePx) {
+        return gridThumbnail(cellSizePx, cellSizePx);
+    }
+
+    /**
+     * Options for the grid thumbnails of the cells sized from the image aspect ratio, decoded exactly to the cell size.
+     * @param cellWidthPx  width of the grid cell in pixels.
+     * @param cellHeightPx height of the grid cell in pixels.
+     */
+    public static RequestOptions gridThumbnail(final int cellWidthPx, final int cellHeightPx) {
+        RequestOptions requestOptions = new RequestOptions()
+                .format(DecodeFormat.PREFER_RGB_565)
+                .fitCenter()
+                // fitCenter() sets its own downsample strategy, so this has to come after it.
+                .downsample(DownsampleStrategy.AT_MOST)
+                .dontAnimate();
+
+        return cellWidthPx > 0 && cellHeightPx > 0 ? requestOptions.override(cellWidthPx, cellHeightPx) : requestOptions;
+    }
+
+    /**
+     * Options for the details screen, decoded in full quality.
+     */
+    public static RequestOptions detailImage() {
+        return new RequestOptions()
+                .format(DecodeFormat.PREFER_ARGB_8888)
+                .fitCenter()
+                .dontAnimate();
+    }
+}
@@ -0,0 +1,123 @@
+package com.dev.imagesearching.utils;
+
+import androidx.annotation.NonNull;
+
+import static com.dev.imagesearching.utils.NetworkConstants.IMAGE_BASE_URL;
+
+/**
+ * (c) All rights reserved.
+ *
+ * Resolves the Imgur image url of the appropriate size tier for the target view.
+ *
+ * Imgur serves the resized renditions of every image with a suffix after the image id,
+ * so the smallest tier which covers the target view's pixel size is downloaded and decoded, instead of the original image.
+ */
+public class ImgurImageUrlResolver {
+
+    /**
+     * Size tiers served by Imgur, in ascending order of size.
+     */
+    public enum ImgurImageSize {
+        SMALL_SQUARE("s", 90, true),
+        BIG_SQUARE("b", 160, true),
+        SMALL_THUMBNAIL("t", 160, false),
+        MEDIUM_THUMBNAIL("m", 320, false),
+        LARGE_THUMBNAIL("l", 640, false),
+        HUGE_THUMBNAIL("h", 1024, false),
+        ORIGINAL("", Integer.MAX_VALUE, false);
+
+        final String suffix;
+        final int maxDimensionPx;
+        final boolean isSquare;
+
+        ImgurImageSize(final String suffix, final int maxDimensionPx, final boolean isSquare) {
+            this.suffix = suffix;
+            this.maxDimensionPx = maxDimensionPx;
+            this.isSquare = isSquare;
+        }
+    }
+
+    private static final String IMAGE_EXTENSION = ".jpg";
+
+    // Imgur serves every animated image as mp4 as well, which is far lighter to decode than the GIF.
+    private static final String VIDEO_EXTENSION = ".mp4";
+
+    private ImgurImageUrlResolver() {
+    }
+
+    /**
+     * To select the smallest tier which covers the target size.
+     *
+     * @param targetWidthPx  measured width of the target view in pixels.
+     * @param targetHeightPx measured height of the target view in pixels.
+     * @param isSquareCrop   true if the target crops the image into a square, the square tiers are then considered.
+     */
+    public static ImgurImageSize selectSize(final int targetWidthPx, final int targetHeightPx, final boolean isSquareCrop) {
+        int targetDimensionPx = Math.max(targetWidthPx, targetHeightPx);
+
+        // Target is not measured yet, the original image is the only safe choice.
+        if (targetDimensionPx <= 0) {
+            return ImgurImageSize.ORIGINAL;
+        }
+
+        for (ImgurImageSize imageSize : ImgurImageSize.values()) {
+            if (imageSize.isSquare == isSquareCrop || ImgurImageSize.ORIGINAL == imageSize) {
+                if (imageSize.maxDimensionPx >= targetDimensionPx) {
+                    return imageSize;
+                }
+            }
+        }
+        return ImgurImageSize.ORIGINAL;
+    }
+
+    /**
+     * To select the tier displayed by the details screen, which covers the screen width.
+     * @param detailWidthPx width of the details screen image view in pixels.
+     */
+    public static ImgurImageSize selectDetailSize(final int detailWidthPx) {
+        return selectSize(detailWidthPx, detailWidthPx, false);
+    }
+
+    /**
+     * To get the tier just below the given one, used as the progressive placeholder of a bigger tier.
+     * @return null if there is no smaller proportional tier.
+     */
+    public static ImgurImageSize previousSize(@NonNull final ImgurImageSize imageSize) {
+        for (int ordinal = imageSize.ordinal() - 1; ordinal >= 0; ordinal--) {
+            ImgurImageSize previousSize = ImgurImageSize.values()[ordinal];
+            if (!previousSize.isSquare) {
+                return previousSize;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * To build the url of the given image in the given tier.
+     * @param imageID Imgur image id, e.g. cover of the gallery item.
+     */
+    public static String buildUrl(final String imageID, @NonNull final ImgurImageSize imageSize) {
+        if (null == imageID || imageID.isEmpty()) {
+            return null;
+        }
+        return IMAGE_BASE_URL + imageID + imageSize.suffix + IMAGE_EXTENSION;
+    }
+
+    /**
+     * To build the url of the mp4 rendition of the given animated image.
+     * @param imageID Imgur image id, e.g. cover of the gallery item.
+     */
+    public static String buildVideoUrl(final String imageID) {
+        if (null == imageID || imageID.isEmpty()) {
+            return null;
+        }
+        return IMAGE_BASE_URL + imageID + VIDEO_EXTENSION;
+    }
+
+    /**
+     * To resolve the url of the proportional (not cropped) tier for the target size.
+     */
+    public static String resolve(final String imageID, final int targetWidthPx, final int targetHeightPx) {
+        return buildUrl(imageID, selectSize(targetWidthPx, targetHeightPx, false));
+    }
+}
@@ -0,0 +1,163 @@
+package com.dev.imagesearching.utils;
+
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import androidx.annotation.NonNull;
+
+/**
+ * (c) All rights reserved.
+ *
+ * Fixed size thread pool of the named, low priority threads, which keeps track of its contention,
+ * i.e. the queue depth, and the time each task waits in the queue and takes to run.
+ *
+ * Idle threads are let go after the keep alive time, so the pool is never shut down and needs no restarting.
+ * The metrics are logged periodically, and at once for a task which waited too long.
+ */
+public class InstrumentedThreadPoolExecutor extends ThreadPoolExecutor {
+
+    private static final String TAG = InstrumentedThreadPoolExecutor.class.getSimpleName();
+
+    private static final long KEEP_ALIVE_SECONDS = 30L;
+
+    // Metrics are logged after every this many tasks.
+    private static final int METRICS_LOG_INTERVAL_TASKS = 100;
+
+    // Waits longer than this are logged as the contention.
+    private static final long SLOW_WAIT_MILLIS = 100L;
+
+    private final String mName;
+
+    private final AtomicInteger mMaxQueueDepth = new AtomicInteger();
+    private final AtomicLong mCompletedTasks = new AtomicLong();
+    private final AtomicLong mTotalWaitMillis = new AtomicLong();
+    private final AtomicLong mMaxWaitMillis = new AtomicLong();
+    private final AtomicLong mTotalRunMillis = new AtomicLong();
+    private final AtomicLong mMaxRunMillis = new AtomicLong();
+
+    /**
+     * @param name           prefix of the thread names, and the name of the pool in the metrics.
+     * @param threadCount    number of the threads.
+     * @param threadPriority one of the {@link Process} thread priorities.
+     */
+    public InstrumentedThreadPoolExecutor(@NonNull final String name, final int threadCount, final int threadPriority) {
+        super(threadCount, threadCount, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                newThreadFactory(name, threadPriority));
+        allowCoreThreadTimeOut(true);
+        mName = name;
+    }
+
+    private static ThreadFactory newThreadFactory (@NonNull final String name, final int threadPriority) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> new Thread(() -> {
+            Process.setThreadPriority(threadPriority);
+            runnable.run();
+        }, name + "-" + threadNumber.incrementAndGet());
+    }
+
+    @Override
+    public void execute(@NonNull Runnable command) {
+        super.execute(command instanceof TimedTask ? command : new TimedTask(command));
+
+        // Sampling the depth on every enqueue, the deepest the queue has been is kept.
+        int queueDepth = getQueue().size();
+        int maxQueueDepth;
+        do {
+            maxQueueDepth = mMaxQueueDepth.get();
+        } while (queueDepth > maxQueueDepth && !mMaxQueueDepth.compareAndSet(maxQueueDepth, queueDepth));
+    }
+
+    @Override
+    protected void beforeExecute(Thread thread, Runnable runnable) {
+        super.beforeExecute(thread, runnable);
+
+        if (runnable instanceof TimedTask) {
+            TimedTask timedTask = (TimedTask) runnable;
+            timedTask.mStartedAtMillis = SystemClock.uptimeMillis();
+
+            long waitMillis = timedTask.mStartedAtMillis - timedTask.mEnqueuedAtMillis;
+            mTotalWaitMillis.addAndGet(waitMillis);
+            updateMax(mMaxWaitMillis, waitMillis);
+
+            if (waitMillis > SLOW_WAIT_MILLIS) {
+                Log.w(TAG, mName + " task waited " + waitMillis + " ms, queue depth: " + getQueue().size());
+            }
+        }
+    }
+
+    @Override
+    protected void afterExecute(Runnable runnable, Throwable throwable) {
+        super.afterExecute(runnable, throwable);
+
+        if (runnable instanceof TimedTask) {
+            long runMillis = SystemClock.uptimeMillis() - ((TimedTask) runnable).mStartedAtMillis;
+            mTotalRunMillis.addAndGet(runMillis);
+            updateMax(mMaxRunMillis, runMillis);
+        }
+
+        if (0 == mCompletedTasks.incrementAndGet() % METRICS_LOG_INTERVAL_TASKS) {
+            Log.d(TAG, describeMetrics());
+        }
+    }
+
+    /**
+     * To describe the contention of the pool since it is created, e.g. for logging.
+     */
+    public String describeMetrics () {
+        long completedTasks = Math.max(1L, mCompletedTasks.get());
+        return mName + ": completed " + mCompletedTasks.get()
+                + ", queue depth " + getQueue().size() + " (max " + mMaxQueueDepth.get() + ")"
+                + ", wait avg " + mTotalWaitMillis.get() / completedTasks + " ms (max " + mMaxWaitMillis.get() + " ms)"
+                + ", run avg " + mTotalRunMillis.get() / completedTasks + " ms (max " + mMaxRunMillis.get() + " ms)";
+    }
+
+    public int getQueueDepth () {
+        return getQueue().size();
+    }
+
+    public int getMaxQueueDepth () {
+        return mMaxQueueDepth.get();
+    }
+
+    public long getMaxWaitMillis () {
+        return mMaxWaitMillis.get();
+    }
+
+    public long getMaxRunMillis () {
+        return mMaxRunMillis.get();
+    }
+
+    private static void updateMax (@NonNull final AtomicLong max, final long value) {
+        long currentMax;
+        do {
+            currentMax = max.get();
+        } while (value > currentMax && !max.compareAndSet(currentMax, value));
+    }
+
+    /**
+     * Task stamped with the time it is enqueued and started at.
+     */
+    private static final class TimedTask implements Runnable {
+
+        private final Runnable mRunnable;
+        private final long mEnqueuedAtMillis = SystemClock.uptimeMillis();
+        private long mStartedAtMillis;
+
+        TimedTask(@NonNull final Runnable runnable) {
+            mRunnable = runnable;
+        }
+
+        @Override
+        public void run() {
+            mRunnable.run();
+        }
+    }
+}
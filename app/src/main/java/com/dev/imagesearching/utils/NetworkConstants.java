@@ -18,6 +18,27 @@ public interface NetworkConstants {
     // URI for image list API call.
     String IMAGE_PATH_URI = "/gallery/search/{pageNo}";
 
+    // Directory name, under app cache directory, for the search pages response cache.
+    String SEARCH_PAGE_CACHE_DIRECTORY = "search_pages";
+
+    // Maximum size of the search pages response cache on disk.
+    long SEARCH_PAGE_CACHE_MAX_SIZE_BYTES = 10L * 1024 * 1024;
+
+    // Cached search pages are served without network within this period, and revalidated in background.
+    int SEARCH_PAGE_CACHE_TTL_SECONDS = 5 * 60;
+
+    // First page number of the search results.
+    int SEARCH_FIRST_PAGE_NO = 1;
+
+    // Expected number of the items in a search results page, Imgur decides the actual page size.
+    int SEARCH_PAGE_SIZE = 60;
+
+    // Next page is loaded once the grid is scrolled within this many items of the end.
+    int SEARCH_PREFETCH_DISTANCE = 24;
+
+    // Max. number of pages held in memory, the pages farthest from the scroll position are dropped beyond it.
+    int SEARCH_MAX_IN_MEMORY_PAGES = 8;
+
     // Key name for using the authorization header for images search network request.
     String AUTHORIZATION_HEADER_KEY = "Authorization";
 
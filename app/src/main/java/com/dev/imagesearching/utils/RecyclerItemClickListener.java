@@ -11,31 +11,92 @@ import androidx.recyclerview.widget.RecyclerView;
  * (c) All rights reserved.
  *
  * Utility class to handle the item click on grid recycler view.
+ *
+ * Optionally it also reports the press-down on an item, so that the work required by the click can be started
+ * ahead of the tap-up, and the press cancellation when the touch turns into a scroll.
  */
 public class RecyclerItemClickListener implements RecyclerView.OnItemTouchListener {
     private OnItemClickListener mListener;
+    private OnItemPressListener mPressListener;
+
+    // Adapter position of the item under the ongoing press, NO_POSITION if there is no press.
+    private int mPressedPosition = RecyclerView.NO_POSITION;
 
     public interface OnItemClickListener {
         public void onItemClick(View view, int position);
     }
 
+    public interface OnItemPressListener {
+
+        /**
+         * Called on the press-down of an item, before it is known if the touch is a tap.
+         */
+        public void onItemPressed(View view, int position);
+
+        /**
+         * Called when the pressed item is not tapped, i.e. the touch turned into a scroll or it is cancelled.
+         */
+        public void onItemPressCancelled(int position);
+    }
+
     GestureDetector mGestureDetector;
 
     public RecyclerItemClickListener(Context context, OnItemClickListener listener) {
+        this(context, listener, null);
+    }
+
+    public RecyclerItemClickListener(Context context, OnItemClickListener listener, OnItemPressListener pressListener) {
         mListener = listener;
+        mPressListener = pressListener;
         mGestureDetector = new GestureDetector(context, new GestureDetector.SimpleOnGestureListener() {
             @Override
             public boolean onSingleTapUp(MotionEvent e) {
                 return true;
             }
+
+            @Override
+            public boolean onScroll(MotionEvent e1, MotionEvent e2, float distanceX, float distanceY) {
+                // Touch has crossed the touch slop, it won't be a tap anymore.
+                cancelPress();
+                return false;
+            }
         });
     }
 
     @Override
     public boolean onInterceptTouchEvent(RecyclerView view, MotionEvent e) {
         View childView = view.findChildViewUnder(e.getX(), e.getY());
-        if (childView != null && mListener != null && mGestureDetector.onTouchEvent(e)) {
-            mListener.onItemClick(childView, view.getChildAdapterPosition(childView));
+
+        // Gesture detector must see the whole touch sequence, to detect the scroll.
+        boolean isSingleTapUp = mGestureDetector.onTouchEvent(e);
+
+        switch (e.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                cancelPress();
+                if (childView != null && mPressListener != null) {
+                    mPressedPosition = view.getChildAdapterPosition(childView);
+                    if (RecyclerView.NO_POSITION != mPressedPosition) {
+                        mPressListener.onItemPressed(childView, mPressedPosition);
+                    }
+                }
+                break;
+
+            case MotionEvent.ACTION_UP:
+                if (childView != null && mListener != null && isSingleTapUp) {
+                    // Press is consumed by the click, the work started on press-down is kept.
+                    mPressedPosition = RecyclerView.NO_POSITION;
+                    mListener.onItemClick(childView, view.getChildAdapterPosition(childView));
+                } else {
+                    cancelPress();
+                }
+                break;
+
+            case MotionEvent.ACTION_CANCEL:
+                cancelPress();
+                break;
+
+            default:
+                break;
         }
         return false;
     }
@@ -49,5 +110,17 @@ public class RecyclerItemClickListener implements RecyclerView.OnItemTouchListen
 
     }
 
+    /**
+     * To notify the press cancellation, if an item is pressed.
+     */
+    private void cancelPress() {
+        if (RecyclerView.NO_POSITION != mPressedPosition) {
+            int pressedPosition = mPressedPosition;
+            mPressedPosition = RecyclerView.NO_POSITION;
 
+            if (mPressListener != null) {
+                mPressListener.onItemPressCancelled(pressedPosition);
+            }
+        }
+    }
 }
@@ -1,11 +1,19 @@
 package com.dev.imagesearching.viewmodels;
 
 import android.app.Application;
+import android.util.LruCache;
 
+import com.dev.imagesearching.models.ImageGridItem;
 import com.dev.imagesearching.repositories.ImagesDataRepository;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
 /**
@@ -16,65 +24,126 @@ import androidx.lifecycle.MutableLiveData;
  * Communication with Data layer:
  * - Retrieve the previously added comment from database.
  * - To make the database insertion call for adding the comment on image.
+ * - Provide the current search results to page through, and preload the comments of the pages around the displayed one.
+ * - Keep the comments typed but not yet added, so that they survive swiping between the pages.
  *
  * - Providing the lifecycle aware live data instance, so that view/ UI controller can consume it.
  */
 public class ImageDetailsViewModel extends AndroidViewModel {
 
-    private MutableLiveData<Long> mDBInsertResultLiveData;
-    private MutableLiveData<String> mExistingRecordLiveData;
+    // Pages on each side of the displayed page, whose comments are preloaded.
+    private static final int COMMENT_PRELOAD_PAGE_COUNT = 1;
+
+    // Max. comments kept in memory, only a small window around the displayed page is needed.
+    private static final int STORED_COMMENTS_CACHE_SIZE = 16;
+
+    // Stored comments of the recently displayed or preloaded pages, keyed by image id.
+    private final LruCache<String, String> mStoredCommentsCache = new LruCache<>(STORED_COMMENTS_CACHE_SIZE);
+
+    // Comments typed on the pages but not yet added, keyed by image id. Only the pages typed on are kept, so it stays small.
+    private final Map<String, String> mCommentDrafts = new HashMap<>();
+
+    // Notifies that more stored comments are available in the cache.
+    private final MutableLiveData<Integer> mStoredCommentsLiveData = new MutableLiveData<>();
 
     public ImageDetailsViewModel(@NonNull Application application) {
         super(application);
-
-        init();
     }
 
     /**
-     * To perform the necessary actions required when initializing the view model.
+     * To get the current search results, the details screen pages through them.
      */
-    public void init () {
+    public List<ImageGridItem> getSearchResultItems () {
+        return ImagesDataRepository.getInstance().getSearchResultItems();
+    }
 
-        ImagesDataRepository imageDataRepository = ImagesDataRepository.getInstance();
+    /**
+     * Getter for live data notified whenever the comments of more images are retrieved.
+     * The comments are then read through {@link #getStoredComment(String)}.
+     */
+    public LiveData<Integer> getStoredCommentsObservable () {
+        return mStoredCommentsLiveData;
+    }
 
-        // Initializing the observers related to database operations.
-        mDBInsertResultLiveData = imageDataRepository.getInsertRecordResultObservable();
-        mExistingRecordLiveData = imageDataRepository.getExistingRecordObservable();
+    /**
+     * To get the stored comment of the given image, if it is already retrieved.
+     * @return empty string if no comment is stored for the image, null if it is not yet retrieved.
+     */
+    public String getStoredComment (@NonNull final String imageID) {
+        return mStoredCommentsCache.get(imageID);
+    }
 
+    /**
+     * To keep the comment box text of a page, when the user swipes away from it.
+     * The text is kept only if it differs from the stored comment of the image.
+     * @param imageID     image of the page swiped away from.
+     * @param commentText text of the comment box.
+     */
+    public void saveCommentDraft (@NonNull final String imageID, @NonNull final String commentText) {
+        String storedComment = mStoredCommentsCache.get(imageID);
+        if (commentText.equals(null != storedComment ? storedComment : "")) {
+            mCommentDrafts.remove(imageID);
+        } else {
+            mCommentDrafts.put(imageID, commentText);
+        }
     }
 
     /**
-     * Getter for live data used to observe the comment addition results.
-     * @return mDBInsertResultLiveData
+     * To get the comment typed on the given image but not yet added.
+     * @return null if there is no such comment.
      */
-    public MutableLiveData <Long> getDBInsertionObservable () {
-        return mDBInsertResultLiveData;
+    public String getCommentDraft (@NonNull final String imageID) {
+        return mCommentDrafts.get(imageID);
     }
 
     /**
-     * Getter for live data used to observe the existing comment retrieval results.
-     * @return mExistingRecordLiveData
+     * To retrieve the stored comments of the displayed page and its neighbours, which are not retrieved yet.
+     * @param pageItems items of the details screen pager.
+     * @param position  displayed page.
      */
-    public MutableLiveData <String> getExistingRecordObservable () {
-        return mExistingRecordLiveData;
+    public void loadStoredCommentsAround (@NonNull final List<ImageGridItem> pageItems, final int position) {
+        List<String> imageIDs = new ArrayList<>();
+
+        int firstPosition = Math.max(0, position - COMMENT_PRELOAD_PAGE_COUNT);
+        int lastPosition = Math.min(pageItems.size() - 1, position + COMMENT_PRELOAD_PAGE_COUNT);
+        for (int pagePosition = firstPosition; pagePosition <= lastPosition; pagePosition++) {
+            String imageID = pageItems.get(pagePosition).getId();
+            if (null != imageID && null == mStoredCommentsCache.get(imageID)) {
+                imageIDs.add(imageID);
+            }
+        }
+
+        ImagesDataRepository.getInstance().getPreviousCommentsForImages(getApplication().getApplicationContext(), imageIDs,
+                storedComments -> {
+                    // Cache is updated before the notification, so the coalesced notifications lose nothing.
+                    for (String imageID : storedComments.keySet()) {
+                        mStoredCommentsCache.put(imageID, storedComments.get(imageID));
+                    }
+                    mStoredCommentsLiveData.postValue(mStoredCommentsCache.size());
+                });
     }
 
     /**
      * Method to add/ update comment for a given image.
      * @param imageID based on this comment will be stored/ updated to specific image.
      * @param commentData to be stored or updated based on imageID.
+     * @return observable of this comment addition, emits its result once.
      */
-    public void addCommentOnImage (@NonNull final String imageID, @NonNull String commentData) {
+    public LiveData<Long> addCommentOnImage (@NonNull final String imageID, @NonNull String commentData) {
         ImagesDataRepository imagesDataRepository = ImagesDataRepository.getInstance();
-        imagesDataRepository.addCommentForImage(getApplication().getApplicationContext(), imageID, commentData);
+        LiveData<Long> insertResultObservable =
+                imagesDataRepository.addCommentForImage(getApplication().getApplicationContext(), imageID, commentData);
+
+        // Keeping the cached comment in sync, so that it is displayed when the user swipes back to the image.
+        mStoredCommentsCache.put(imageID, commentData);
+        mCommentDrafts.remove(imageID);
+        return insertResultObservable;
     }
 
     /**
-     * Method to retrieve the existing comment added to the
-     * @param imageID based on this, comment data will be retrieved if exist.
+     * Method to write the comments buffered for writing now, e.g. when the details screen is stopped.
      */
-    public void getExistingCommentOnImage (@NonNull final String imageID) {
-        ImagesDataRepository imagesDataRepository = ImagesDataRepository.getInstance();
-        imagesDataRepository.getPreviousCommentForImage(getApplication().getApplicationContext(), imageID);
+    public void flushPendingComments () {
+        ImagesDataRepository.getInstance().flushPendingComments();
     }
 }
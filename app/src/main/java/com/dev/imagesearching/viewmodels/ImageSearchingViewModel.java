@@ -1,17 +1,25 @@
 package com.dev.imagesearching.viewmodels;
 
 import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
 
-import com.dev.imagesearching.models.Data;
-import com.dev.imagesearching.models.ImagesResponse;
+import com.dev.imagesearching.models.ImageGridItem;
+import com.dev.imagesearching.models.PageLoadState;
 import com.dev.imagesearching.repositories.ImagesDataRepository;
+import com.dev.imagesearching.repositories.SearchResultsDataSourceFactory;
+import com.dev.imagesearching.utils.AppUtils;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
+import androidx.paging.LivePagedListBuilder;
+import androidx.paging.PagedList;
 
 import static com.dev.imagesearching.utils.NetworkConstants.CODE_400;
 import static com.dev.imagesearching.utils.NetworkConstants.CODE_400_DETAIL;
@@ -26,6 +34,9 @@ import static com.dev.imagesearching.utils.NetworkConstants.CODE_503_DETAIL;
 import static com.dev.imagesearching.utils.NetworkConstants.CODE_INTERNET_NOT_AVAILABLE;
 import static com.dev.imagesearching.utils.NetworkConstants.CODE_INTERNET_NOT_AVAILABLE_DETAILS;
 import static com.dev.imagesearching.utils.NetworkConstants.CODE_UNKNOWN;
+import static com.dev.imagesearching.utils.NetworkConstants.SEARCH_MAX_IN_MEMORY_PAGES;
+import static com.dev.imagesearching.utils.NetworkConstants.SEARCH_PAGE_SIZE;
+import static com.dev.imagesearching.utils.NetworkConstants.SEARCH_PREFETCH_DISTANCE;
 import static com.dev.imagesearching.utils.NetworkConstants.UNKNOWN_FAILURE;
 
 /**
@@ -34,23 +45,66 @@ import static com.dev.imagesearching.utils.NetworkConstants.UNKNOWN_FAILURE;
  * Component of data presentation layer, responsible of the following operations.
  *
  * Communication with Data layer:
- * - Make the network call to retrieve the image search results.
+ * - Make the network call to retrieve the image search results, page by page as the grid is scrolled.
  * - Providing the lifecycle aware live data instance, so that view/ UI controller can consume it.
  */
 public class ImageSearchingViewModel extends AndroidViewModel {
 
-    // For holding the freshly loaded images data responses.
-    private MutableLiveData<ImagesResponse> mImagesResponseLiveData;
+    // Search results are loaded on the main thread, the repository completes the loads asynchronously.
+    private static final Executor MAIN_THREAD_EXECUTOR = new Handler(Looper.getMainLooper())::post;
 
-    // To notify about the network errors received.
-    private MutableLiveData<Integer> mNetworkErrorCodeLiveData;
+    // Paging configuration of the search results.
+    private final PagedList.Config mPagedListConfig;
 
-    // To persist the recycler view data items.
-    private MutableLiveData<List<Data>> mImageRecyclerViewLiveData = new MutableLiveData<>();
+    // Max. pages held in memory, a recent query is restored with up to this many of its pages.
+    private final int mMaxInMemoryPages;
+
+    // Data source factory of the searched keyword, replaced on every new search.
+    private final MutableLiveData<SearchResultsDataSourceFactory> mDataSourceFactoryLiveData = new MutableLiveData<>();
+
+    // Search results of the searched keyword as compact grid items, kept across the configuration changes.
+    private final LiveData<PagedList<ImageGridItem>> mSearchResultsLiveData;
+
+    // State of the page loads of the searched keyword.
+    private final LiveData<PageLoadState> mPageLoadStateLiveData;
+
+    // Identify if the grid cells are sized from the image aspect ratios, kept across the configuration changes.
+    private boolean mIsStaggeredGrid;
+
+    // Stable id of the item to scroll to, once the results of a recent query are displayed.
+    private long mPendingScrollAnchorId = ImagesDataRepository.NO_SCROLL_POSITION;
 
     public ImageSearchingViewModel (@NonNull Application application) {
+        this(application, SEARCH_PAGE_SIZE, SEARCH_PREFETCH_DISTANCE, SEARCH_MAX_IN_MEMORY_PAGES);
+    }
+
+    /**
+     * @param pageSize              expected number of items in a page.
+     * @param prefetchDistance      next page is loaded once the grid is scrolled within this many items of the end.
+     * @param maxInMemoryPages      pages farthest from the scroll position are dropped beyond it.
+     */
+    public ImageSearchingViewModel (@NonNull Application application, final int pageSize,
+                                    final int prefetchDistance, final int maxInMemoryPages) {
         super(application);
 
+        mMaxInMemoryPages = maxInMemoryPages;
+
+        // Max. size must leave room for the prefetch distance on both the sides of a page.
+        mPagedListConfig = new PagedList.Config.Builder()
+                .setPageSize(pageSize)
+                .setInitialLoadSizeHint(pageSize)
+                .setPrefetchDistance(prefetchDistance)
+                .setMaxSize(Math.max(pageSize * maxInMemoryPages, pageSize + 2 * prefetchDistance))
+                .setEnablePlaceholders(false)
+                .build();
+
+        mSearchResultsLiveData = Transformations.switchMap(mDataSourceFactoryLiveData, dataSourceFactory ->
+                new LivePagedListBuilder<>(dataSourceFactory, mPagedListConfig)
+                        .setFetchExecutor(MAIN_THREAD_EXECUTOR)
+                        .build());
+        mPageLoadStateLiveData = Transformations.switchMap(mDataSourceFactoryLiveData,
+                SearchResultsDataSourceFactory::getPageLoadStateObservable);
+
         init();
     }
 
@@ -61,12 +115,8 @@ public class ImageSearchingViewModel extends AndroidViewModel {
 
         ImagesDataRepository imageDataRepository = ImagesDataRepository.getInstance();
 
-        // Initializing the observers related to network operations.
-        mImagesResponseLiveData = imageDataRepository.getImagesResponseObservable();
-        mNetworkErrorCodeLiveData = imageDataRepository.getNetworkFailureCodeObservable();
-
-        // Initializing recycler view data items list.
-        mImageRecyclerViewLiveData = new MutableLiveData<>(new ArrayList<>());
+        imageDataRepository.publishSearchResultItems(null);
+        imageDataRepository.setStaggeredGrid(mIsStaggeredGrid);
     }
 
     /**
@@ -105,56 +155,143 @@ public class ImageSearchingViewModel extends AndroidViewModel {
     }
 
     /**
-     * Method to return the images data observable.
-     * This will be consumed to display images in the grid recycler view.
-     * @return mImagesResponseLiveData
+     * To return the observable of the search results, the pages are loaded as the grid is scrolled.
+     * @return observed by the UI controller to submit the list to recycler view adapter.
      */
-    public MutableLiveData<ImagesResponse> getImagesObservableData () {
-        return mImagesResponseLiveData;
+    public LiveData<PagedList<ImageGridItem>> getSearchResultsObservable () {
+        return mSearchResultsLiveData;
     }
 
     /**
-     * Method to keep/ persist the recyclerview data list, which will intact w.r.t configuration changes.
-     * @param newItems newly loaded items will be added to recyclerview data list.
+     * Method to return the page load state observable, the corresponding UI will display the progress and errors based on it.
      */
-    public void addObjectsToRecyclerViewDataList (List<Data> newItems) {
+    public LiveData<PageLoadState> getPageLoadStateObservable () {
+        return mPageLoadStateLiveData;
+    }
 
-        if (null != newItems && !newItems.isEmpty()) {
-            List<Data> existingDataList = mImageRecyclerViewLiveData.getValue();
+    /**
+     * Making the API call via data layer to remote.
+     * This API call will be fetching the images search results, the loads of the previous keyword are cancelled.
+     * @param keyword for which the images results must be fetched.
+     */
+    public void searchImages (final String keyword) {
+        SearchResultsDataSourceFactory previousDataSourceFactory = mDataSourceFactoryLiveData.getValue();
 
-            // Adding the newly loaded data items to recycler view data list,
-            // Since it uses the live data, so need not to notify the adapter for the dataset changed.
-            if (null != existingDataList) {
-                existingDataList.addAll(newItems);
-                mImageRecyclerViewLiveData.setValue(existingDataList);
-            }
+        // Same query is already displayed, e.g. the search field is restored after a configuration change.
+        if (isDisplayedKeyword(keyword)) {
+            return;
         }
+
+        if (null != previousDataSourceFactory) {
+            previousDataSourceFactory.invalidate();
+        }
+
+        // Switching to the latest query, the requests of the previous one are cancelled.
+        ImagesDataRepository imagesDataRepository = ImagesDataRepository.getInstance();
+        imagesDataRepository.switchSearchSession(keyword);
+        imagesDataRepository.publishSearchResultItems(null);
+
+        // Scroll position is restored if the user comes back to a recent query.
+        mPendingScrollAnchorId = imagesDataRepository.getSearchScrollPosition(keyword);
+        // Refining the previous query displays its matching results at once, e.g. "cat" to "cats".
+        String previousKeyword = null != previousDataSourceFactory ? previousDataSourceFactory.getKeyword() : null;
+        mDataSourceFactoryLiveData.setValue(new SearchResultsDataSourceFactory(imagesDataRepository, keyword, previousKeyword,
+                mMaxInMemoryPages));
     }
 
     /**
-     * To return the persisted data list used by recycler view.
-     * @return this list is used by recycler view adapter to display the results.
+     * To search the keyword submitted by the user.
+     * Submitting the displayed keyword again repeats its failed page load, if any, rather than being ignored.
+     * @param keyword for which the images results must be fetched.
      */
-    public List<Data> getRecyclerViewDataList () {
-        return mImageRecyclerViewLiveData.getValue();
+    public void submitSearch (final String keyword) {
+        if (isDisplayedKeyword(keyword)) {
+            retrySearch();
+        } else {
+            searchImages(keyword);
+        }
     }
 
     /**
-     * Method to rturn the error observable, the corresponding UI will display errors based on it.
+     * To check if the results of the given keyword are displayed, i.e. the same query after normalization.
      */
-    public MutableLiveData <Integer> getErrorObservable () {
-        return mNetworkErrorCodeLiveData;
+    private boolean isDisplayedKeyword (final String keyword) {
+        SearchResultsDataSourceFactory dataSourceFactory = mDataSourceFactoryLiveData.getValue();
+        return null != dataSourceFactory && AppUtils.normalizeSearchQuery(keyword)
+                .equals(AppUtils.normalizeSearchQuery(dataSourceFactory.getKeyword()));
     }
 
     /**
-     * Making the API call via data layer to remote.
-     * This API call will be fetching the images search results.
-     * @param pageNo to perform the pagination, pageNo will be sent.
-     * @param keyword for which the images results must be fetched.
+     * To save the scroll position of the displayed results, before moving on to another query.
+     * @param topGridItem item on top of the grid.
      */
-    public void searchImages (final int pageNo, final String keyword) {
-        // Loading the image listing from remote.
-        ImagesDataRepository imagesDataRepository = ImagesDataRepository.getInstance();
-        imagesDataRepository.loadImagesList(pageNo, keyword);
+    public void saveScrollPosition (final ImageGridItem topGridItem) {
+        SearchResultsDataSourceFactory dataSourceFactory = mDataSourceFactoryLiveData.getValue();
+        if (null != dataSourceFactory && null != topGridItem) {
+            ImagesDataRepository.getInstance().saveSearchScrollPosition(dataSourceFactory.getKeyword(), topGridItem.getStableId());
+        }
+    }
+
+    /**
+     * To take the saved scroll position of the searched query, it is restored only once.
+     * @return stable id of the item to scroll to, or {@link ImagesDataRepository#NO_SCROLL_POSITION}.
+     */
+    public long takePendingScrollPosition () {
+        long scrollAnchorId = mPendingScrollAnchorId;
+        mPendingScrollAnchorId = ImagesDataRepository.NO_SCROLL_POSITION;
+        return scrollAnchorId;
+    }
+
+    /**
+     * To repeat the failed page load of the searched keyword.
+     */
+    public void retrySearch () {
+        SearchResultsDataSourceFactory dataSourceFactory = mDataSourceFactoryLiveData.getValue();
+        if (null != dataSourceFactory) {
+            dataSourceFactory.retry();
+        }
+    }
+
+    /**
+     * To share the displayed search results with the details screen, so that it can page through them.
+     * @param searchResultItems must not be modified once published.
+     */
+    public void publishSearchResultItems (final List<ImageGridItem> searchResultItems) {
+        ImagesDataRepository.getInstance().publishSearchResultItems(searchResultItems);
+    }
+
+    public boolean isStaggeredGrid () {
+        return mIsStaggeredGrid;
+    }
+
+    public void setStaggeredGrid (final boolean isStaggeredGrid) {
+        mIsStaggeredGrid = isStaggeredGrid;
+        ImagesDataRepository.getInstance().setStaggeredGrid(isStaggeredGrid);
+    }
+
+    /**
+     * To pass the grid cell size to the data layer, so that the prefetched thumbnails are of the displayed tier.
+     * @param cellSizePx width of a grid cell in pixels.
+     */
+    public void setGridCellSize (final int cellSizePx) {
+        ImagesDataRepository.getInstance().setGridThumbnailSize(cellSizePx);
+    }
+
+    /**
+     * To start preparing the details screen of the pressed grid item.
+     * @param detailWidthPx width of the details screen image view in pixels.
+     */
+    public void prefetchImageDetails (final ImageGridItem gridItem, final int detailWidthPx) {
+        if (null != gridItem) {
+            ImagesDataRepository.getInstance().prefetchImageDetails(getApplication().getApplicationContext(),
+                    gridItem.getCover(), detailWidthPx);
+        }
+    }
+
+    /**
+     * To cancel the details screen preparation, as the press is not turned into a tap.
+     */
+    public void cancelImageDetailsPrefetch () {
+        ImagesDataRepository.getInstance().cancelImageDetailsPrefetch(getApplication().getApplicationContext());
     }
 }
@@ -2,17 +2,21 @@ package com.dev.imagesearching.views.activities
 
 import android.os.Bundle
 import android.os.PersistableBundle
+import android.os.SystemClock
 import android.text.TextUtils
 import android.view.MenuItem
 import androidx.appcompat.widget.Toolbar
-import androidx.lifecycle.MutableLiveData
 import androidx.lifecycle.Observer
 import androidx.lifecycle.ViewModelProvider
-import com.bumptech.glide.Glide
+import androidx.recyclerview.widget.RecyclerView
+import androidx.viewpager2.widget.ViewPager2
 import com.dev.imagesearching.R
+import com.dev.imagesearching.models.Data
+import com.dev.imagesearching.models.ImageGridItem
 import com.dev.imagesearching.utils.AppUtils
-import com.dev.imagesearching.utils.NetworkConstants.IMAGE_BASE_URL
+import com.dev.imagesearching.utils.DetailOpenLatencyTracker
 import com.dev.imagesearching.viewmodels.ImageDetailsViewModel
+import com.dev.imagesearching.views.adapters.ImageDetailPagerAdapter
 import com.google.android.material.snackbar.BaseTransientBottomBar.LENGTH_LONG
 import com.google.android.material.snackbar.Snackbar
 import kotlinx.android.synthetic.main.activity_image_detail.*
@@ -21,12 +25,20 @@ import kotlinx.android.synthetic.main.activity_image_detail.*
  * (c) All rights reserved.
  *
  * Activity class to display the image details.
- * This will also facilitates the user to add comment on the image.
+ * The user can swipe through the current search results, and add comment on the displayed image.
  */
 class ImageDetailActivity : BaseActivity() {
 
     private lateinit var imageSearchViewModel : ImageDetailsViewModel
 
+    private lateinit var pagerAdapter: ImageDetailPagerAdapter
+
+    // Image id of the displayed page, its comment box text is kept as a draft when the user swipes away.
+    private var displayedPageImageID: String? = null
+
+    // Image id of the page whose stored comment is populated into the comment box.
+    private var displayedCommentImageID: String? = null
+
     override fun onCreate(savedInstanceState: Bundle?) {
         super.onCreate(savedInstanceState)
         setContentView(R.layout.activity_image_detail)
@@ -38,6 +50,23 @@ class ImageDetailActivity : BaseActivity() {
         setObservers()
     }
 
+    override fun onStart() {
+        super.onStart()
+
+        // Resuming the animated image of the displayed page.
+        pagerAdapter.setActivePosition(imageDetailsPager.currentItem)
+    }
+
+    override fun onStop() {
+        super.onStop()
+
+        // Releasing the video decoder, while the screen is not visible.
+        pagerAdapter.stopAnimatedImage()
+
+        // Writing the comments added on this screen, without waiting for the buffer delay.
+        imageSearchViewModel.flushPendingComments()
+    }
+
     override fun onOptionsItemSelected(item: MenuItem): Boolean {
 
         if (item.itemId == android.R.id.home) {
@@ -53,43 +82,19 @@ class ImageDetailActivity : BaseActivity() {
         // Initializing the view model.
         imageSearchViewModel = ViewModelProvider(this).get(ImageDetailsViewModel::class.java)
 
-        // Setting up the image title as toolbar title.
-        val imageTitle:String? = intent.getStringExtra("imageTitle")
-        if (null != imageTitle) {
-
-            val toolbarObj: Toolbar = findViewById(R.id.toolbar)
-            toolbarObj.setTitle(imageTitle)
+        // Displaying the back button on toolbar.
+        val toolbarObj: Toolbar = findViewById(R.id.toolbar)
+        setSupportActionBar(toolbarObj)
+        supportActionBar?.setDisplayHomeAsUpEnabled(true)
+        supportActionBar?.setDisplayShowHomeEnabled(true)
 
-            // Displaying the back button on toolbar.
-            setSupportActionBar(toolbarObj)
-            supportActionBar?.setDisplayHomeAsUpEnabled(true)
-            supportActionBar?.setDisplayShowHomeEnabled(true)
-        }
+        // Paging through the current search results, starting from the opened image.
+        setupImagesPager()
 
-
-        // Displaying the image into details screen image view, if the image url is available.
-        var imageURL:String? = intent.getStringExtra("imageURL")
-        if (null != imageURL) {
-
-            imageURL = IMAGE_BASE_URL + imageURL + ".jpg"
-            Glide.with(this)
-                    .load(imageURL)
-                    .fitCenter()
-                    .into(imageViewDetails)
-        }
-
-        // Obtaining the imageID from intent.
-        val imageID:String? = intent.getStringExtra("imageID")
-
-        if (null == imageID) {
+        if (null == currentPageItem()?.id) {
 
             // Notify the user that he won't be able to add the comment.
             Snackbar.make(btn_submit, "Internal error, unable to add comment to the image.", LENGTH_LONG).show()
-
-        } else {
-
-            // Try to fetch if there is any previous comment added to the given image.
-            retrieveExistingComment(imageID)
         }
 
         // Listening the click events on submit button.
@@ -104,7 +109,8 @@ class ImageDetailActivity : BaseActivity() {
                 // Prompt the user that comment box can't be left empty while adding a comment.
                 Snackbar.make(commentBoxET, "Comment is required.", Snackbar.LENGTH_SHORT).show()
             } else {
-                // Proceed to add the comment.
+                // Proceed to add the comment on the displayed image.
+                val imageID: String? = currentPageItem()?.id
                 if (null != imageID)
                     addComment(imageID, commentTextInput)
             }
@@ -112,55 +118,141 @@ class ImageDetailActivity : BaseActivity() {
     }
 
     /**
-     * Adding the following observers.
-     * 1. Observer for retrieving the previous comment if any.
-     * 2. Observer for comment insertion result if any.
+     * Adding the observer for retrieving the previous comments if any,
+     * the result of each comment insertion is observed on its own.
      */
     override fun setObservers() {
 
-        // Adding the existing comment data observer.
-        val existingCommentLiveData: MutableLiveData<String> = imageSearchViewModel.existingRecordObservable
-        existingCommentLiveData.observe(this, Observer {
+        // Adding the stored comments observer, comments of the displayed page and its neighbours are retrieved together.
+        imageSearchViewModel.storedCommentsObservable.observe(this, Observer {
 
-            if (null != existingCommentLiveData.value) {
-                // If existing comment found in database then populate the comment box with it.
-                val existingCommentString: String? = existingCommentLiveData.value
-                commentBoxET.setText(existingCommentString)
+            // Populating the comment box, once the comment of the displayed page is retrieved.
+            displayStoredComment()
+        })
+    }
 
-                // Resetting the existing comment live data, once it is consumed.
-                existingCommentLiveData.value = null
-            }
+    /**
+     * Method to set up the pager over the current search results.
+     * The neighbour pages are kept laid out offscreen, so their detail images are preloaded,
+     * and the pages further away are not cached, so that only a small window of decoded images is held.
+     */
+    private fun setupImagesPager () {
+        val tapUptimeMillis: Long = intent.getLongExtra("tapUptimeMillis", SystemClock.uptimeMillis())
+        val gridCellSizePx: Int = intent.getIntExtra("gridCellSize", 0)
+
+        // Finding the opened image in the search results, the opened image is displayed alone if it is not found.
+        var startPosition: Int = intent.getIntExtra("imagePosition", 0)
+        var pageItems: List<ImageGridItem> = imageSearchViewModel.searchResultItems
+        val imageID: String? = intent.getStringExtra("imageID")
+        if (startPosition !in pageItems.indices || pageItems[startPosition].id != imageID) {
+            startPosition = 0
+            pageItems = listOfNotNull(prepareOpenedImageItem())
+        }
 
-        })
+        pagerAdapter = ImageDetailPagerAdapter(this, gridCellSizePx,
+                intent.getBooleanExtra("isStaggeredGrid", false), resources.displayMetrics.widthPixels)
+        pagerAdapter.setPageItems(pageItems)
 
-        // Adding comment insertion observer.
-        val commentInsertLiveData: MutableLiveData<Long> = imageSearchViewModel.dbInsertionObservable
-        commentInsertLiveData.observe(this, Observer {
+        // Recording the tap-to-image latency of the opened image.
+        pagerAdapter.setOnFirstFrameListener { pageItem, isPlaceholder ->
+            DetailOpenLatencyTracker.recordFirstFrame(pageItem.id, tapUptimeMillis, isPlaceholder)
+        }
 
-            // Prompt the user about the comment adding results.
-            val commentInsertResult: Long? = commentInsertLiveData.value
-            if (null != commentInsertResult) {
-                val resultMsg: String = if (0 >  commentInsertResult) "Error in adding comment" else "Comment added successfully"
-                Snackbar.make(btn_submit, resultMsg, LENGTH_LONG).show()
+        imageDetailsPager.adapter = pagerAdapter
+        imageDetailsPager.offscreenPageLimit = OFFSCREEN_PAGE_LIMIT
+        (imageDetailsPager.getChildAt(0) as? RecyclerView)?.setItemViewCacheSize(0)
+        imageDetailsPager.setCurrentItem(startPosition, false)
 
-                // Resetting the value of comment insert notifier live data, after consuming it.
-                commentInsertLiveData.value = null
+        imageDetailsPager.registerOnPageChangeCallback(object : ViewPager2.OnPageChangeCallback() {
+            override fun onPageSelected(position: Int) {
+                onImagePageSelected(position)
             }
-
         })
+        onImagePageSelected(startPosition)
     }
 
     /**
-     * Method to store the comment in database for a given image.
+     * To update the screen for the displayed page.
      */
-    private fun addComment (imageID: String, commentData: String) {
-        imageSearchViewModel.addCommentOnImage(imageID, commentData)
+    private fun onImagePageSelected (position: Int) {
+        val pageItem: ImageGridItem = pagerAdapter.getItemAtPosition(position) ?: return
+
+        supportActionBar?.title = pageItem.title
+
+        // Keeping the text typed on the page swiped away from, it is restored when the user swipes back.
+        saveCommentDraft()
+        displayedPageImageID = pageItem.id
+
+        // Playing the animated image of the displayed page only.
+        pagerAdapter.setActivePosition(position)
+
+        // A draft of the page takes precedence over its stored comment.
+        val commentDraft: String? = pageItem.id?.let { imageSearchViewModel.getCommentDraft(it) }
+        commentBoxET.setText(commentDraft)
+        displayedCommentImageID = if (null != commentDraft) pageItem.id else null
+
+        // Displaying the comment at once if it is already retrieved, along with the neighbours' comments.
+        displayStoredComment()
+        imageSearchViewModel.loadStoredCommentsAround(pagerAdapter.pageItems, position)
+    }
+
+    /**
+     * To keep the comment box text of the page being swiped away from.
+     */
+    private fun saveCommentDraft () {
+        val imageID: String = displayedPageImageID ?: return
+        imageSearchViewModel.saveCommentDraft(imageID, commentBoxET.text.toString())
     }
 
     /**
-     * Method to retrieve the existing comment on image if available.
+     * To populate the comment box with the stored comment of the displayed page, once per page.
      */
-    private fun retrieveExistingComment (imageID: String) {
-        imageSearchViewModel.getExistingCommentOnImage(imageID)
+    private fun displayStoredComment () {
+        val imageID: String = currentPageItem()?.id ?: return
+        if (imageID == displayedCommentImageID) {
+            return
+        }
+
+        val storedComment: String = imageSearchViewModel.getStoredComment(imageID) ?: return
+        displayedCommentImageID = imageID
+        commentBoxET.setText(storedComment)
+    }
+
+    /**
+     * To get the item of the displayed page.
+     */
+    private fun currentPageItem (): ImageGridItem? {
+        return pagerAdapter.getItemAtPosition(imageDetailsPager.currentItem)
+    }
+
+    /**
+     * To prepare the item of the opened image from the intent, if the search results are not available.
+     */
+    private fun prepareOpenedImageItem (): ImageGridItem? {
+        val imageData = Data()
+        imageData.id = intent.getStringExtra("imageID")
+        imageData.title = intent.getStringExtra("imageTitle")
+        imageData.cover = intent.getStringExtra("imageURL")
+        return ImageGridItem.from(imageData)
+    }
+
+    /**
+     * Method to store the comment in database for a given image.
+     */
+    private fun addComment (imageID: String, commentData: String) {
+        imageSearchViewModel.addCommentOnImage(imageID, commentData).observe(this, Observer { commentInsertResult ->
+
+            // Prompt the user about the comment adding results.
+            if (null != commentInsertResult) {
+                val resultMsg: String = if (0 >  commentInsertResult) "Error in adding comment" else "Comment added successfully"
+                Snackbar.make(btn_submit, resultMsg, LENGTH_LONG).show()
+            }
+        })
+    }
+
+    companion object {
+
+        // Pages laid out on each side of the displayed page, their detail images are preloaded.
+        private const val OFFSCREEN_PAGE_LIMIT = 1
     }
 }
\ No newline at end of file
@@ -4,38 +4,36 @@ import android.content.Intent;
 import android.content.res.Configuration;
 import android.os.Bundle;
 import android.os.PersistableBundle;
-import android.util.Log;
+import android.os.SystemClock;
+import android.view.Menu;
+import android.view.MenuItem;
 import android.view.View;
 import android.widget.ProgressBar;
 
+import com.bumptech.glide.Glide;
 import com.dev.imagesearching.R;
-import com.dev.imagesearching.models.Data;
-import com.dev.imagesearching.models.ImagesResponse;
+import com.dev.imagesearching.models.ImageGridItem;
+import com.dev.imagesearching.models.PageLoadState;
 import com.dev.imagesearching.utils.AppUtils;
 import com.dev.imagesearching.utils.DebouncedQueryTextListener;
+import com.dev.imagesearching.utils.GridPreloadScrollListener;
 import com.dev.imagesearching.utils.RecyclerItemClickListener;
 import com.dev.imagesearching.utils.WrapContentGridLayoutManager;
 import com.dev.imagesearching.viewmodels.ImageSearchingViewModel;
 import com.dev.imagesearching.views.adapters.ImagesGridRecyclerViewAdapter;
 import com.google.android.material.snackbar.Snackbar;
 
-import java.util.List;
-
 import androidx.annotation.NonNull;
 import androidx.appcompat.widget.SearchView;
-import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.Observer;
 import androidx.lifecycle.ViewModelProvider;
-import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.paging.PagedList;
+import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
-
-import static com.dev.imagesearching.utils.NetworkConstants.CODE_DEFAULT;
+import androidx.recyclerview.widget.StaggeredGridLayoutManager;
 
 public class ImageSearchListActivity extends BaseActivity {
 
-    // Page no. required to fetch the results for endless scroll.
-    private int mImageListPageNo = 1;   // Initial value is 1, it can be incremented by one, with scrolls.
-
     // To enter the image search keyword.
     private SearchView mSearchView;
 
@@ -45,11 +43,14 @@ public class ImageSearchListActivity extends BaseActivity {
     // View Model.
     private ImageSearchingViewModel mImageSearchingViewModel;
 
-    // Identify if the network request is already running.
-    private boolean mIsLoading;
+    // Width of a grid cell in pixels.
+    private int mGridCellSizePx;
+
+    // Preloads the thumbnails ahead of the scroll direction.
+    private GridPreloadScrollListener mImagesPreloader;
 
     // UI Views.
-    private GridLayoutManager mGridLayoutManager;
+    private RecyclerView.LayoutManager mGridLayoutManager;
     private RecyclerView mImageListRecyclerView;
     private ProgressBar mMainProgressBarView;
 
@@ -57,6 +58,9 @@ public class ImageSearchListActivity extends BaseActivity {
     private static final int PORTRAIT_RECYCLER_VIEW_COL_SPAN = 3;
     private static final int LANDSCAPE_RECYCLER_VIEW_COL_SPAN = 4;
 
+    // Thumbnails are preloaded for this many screens ahead of the scroll.
+    private static final float PRELOAD_SCREEN_FACTOR = 1.5f;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -78,30 +82,23 @@ public class ImageSearchListActivity extends BaseActivity {
 
         // Adding various required listeners to the grid recycler views.
         mImageListRecyclerView.setHasFixedSize(true);
-        // Initially setting up the column span based on the orientation of screen.
-        if (Configuration.ORIENTATION_PORTRAIT == getResources().getConfiguration().orientation) {
-            mGridLayoutManager = new WrapContentGridLayoutManager(ImageSearchListActivity.this, PORTRAIT_RECYCLER_VIEW_COL_SPAN);
-        } else {
-            mGridLayoutManager = new WrapContentGridLayoutManager(ImageSearchListActivity.this, LANDSCAPE_RECYCLER_VIEW_COL_SPAN);
-        }
-        mImageListRecyclerView.setLayoutManager(mGridLayoutManager);
-        mImageListRecyclerView.addOnScrollListener(mImagesRecyclerViewOnScrollListener);
         mImageListRecyclerView.addOnItemTouchListener(new RecyclerItemClickListener(this, (view, position) -> {
 
             // Moving to details screen with required data.
             navigateToDetailActivity(position);
-        }));
+        }, mOnItemPressListener));
 
         // Initializing the view model.
         mImageSearchingViewModel =  new ViewModelProvider(this).get(ImageSearchingViewModel.class);
 
         // Setting up the adapter to images grid recycler view.
-
-        // Initializing the adapter with the observable data list, so that data changes can reflect directly, even without notifying the adapter for data set changes.
-        List<Data> recyclerViewDataList = mImageSearchingViewModel.getRecyclerViewDataList();
-        mImageRecyclerViewAdapter = new ImagesGridRecyclerViewAdapter(ImageSearchListActivity.this, recyclerViewDataList);
+        // Paged list is submitted by observing the search results under view model, the adapter diffs it in background.
+        mImageRecyclerViewAdapter = new ImagesGridRecyclerViewAdapter(ImageSearchListActivity.this);
         mImageListRecyclerView.setAdapter(mImageRecyclerViewAdapter);
 
+        // Initially setting up the column span based on the orientation of screen.
+        setupGridLayoutManager(getResources().getConfiguration().orientation);
+
         // Setting up the observer to listen the network updates.
         setObservers();
     }
@@ -109,66 +106,47 @@ public class ImageSearchListActivity extends BaseActivity {
     @Override
     public void setObservers() {
 
-        // Adding observer to listen the data retrieval updates and based on that refresh the images grid recycler view.
-        MutableLiveData<ImagesResponse> imagesLiveData = mImageSearchingViewModel.getImagesObservableData();
-
-        imagesLiveData.observe(this, (Observer<ImagesResponse>) imagesResponse -> {
+        // Submitting the search results to the adapter, the further pages are loaded by the paged list as the grid is scrolled.
+        // Scroll position of a recent query is restored once its results are displayed.
+        mImageSearchingViewModel.getSearchResultsObservable().observe(this,
+                (Observer<PagedList<ImageGridItem>>) imagesPagedList -> mImageRecyclerViewAdapter.submitList(imagesPagedList,
+                        this::restoreScrollPosition));
 
-            mIsLoading = false;
+        // Listening to the page loads, to display the progress and the network errors.
+        mImageSearchingViewModel.getPageLoadStateObservable().observe(this, (Observer<PageLoadState>) pageLoadState -> {
 
-            if(mImageListPageNo == 1) {
-                // hide the main progress bar, for first page.
-                mMainProgressBarView.setVisibility(View.GONE);
-            } else {
-                // hide the pagination view.
-                mImageRecyclerViewAdapter.removeLoadMoreViewFromList();
+            if (null == pageLoadState) {
+                return;
             }
 
-            // Retrieved the images data updates, populating the recycler view with it.
-            if (null != imagesResponse) {
-
-                Log.e("ImageSearching", "Setting up data to adapter.");
-
-                // Hiding the soft input keyboard, if opened.
-                AppUtils.hideKeyboard(ImageSearchListActivity.this, mSearchView);
-
-                // If the images data list is not null/ empty, then only try to update the adapter.
-                List<Data> imagesDataList = imagesResponse.getDataList();
-                if (null != imagesDataList && !imagesDataList.isEmpty()) {
-
-                    // Adding the data to persisted data list under the view model.
-                    mImageSearchingViewModel.addObjectsToRecyclerViewDataList(imagesDataList);
-
-                    // Resetting the value to images live data, otherwise it will be keep positing the same data when the next UI controller is attached.
-                    imagesLiveData.setValue(null);
+            if (PageLoadState.STATUS_LOADING == pageLoadState.getStatus()) {
+                if (pageLoadState.isInitialLoad()) {
+                    // Making the progress bar visible for the first page.
+                    mMainProgressBarView.setVisibility(View.VISIBLE);
+                } else {
+                    // Adapter can't be notified while the grid is being scrolled or laid out, so posting the footer insertion.
+                    mImageListRecyclerView.post(() -> mImageRecyclerViewAdapter.showLoadingFooter());
                 }
+                return;
             }
-        });
-
-        // Listening to the network error events.
-        mImageSearchingViewModel.getErrorObservable().observe(this, (Observer<Integer>) errorCode -> {
 
-            mIsLoading = false;
+            // hide the main progress bar and the pagination view.
+            mMainProgressBarView.setVisibility(View.GONE);
+            mImageListRecyclerView.post(() -> mImageRecyclerViewAdapter.hideLoadingFooter());
 
-            // Only consume the error network response if the error code is not CODE_DEFAULT.
-            if (errorCode != CODE_DEFAULT) {
-
-                // Obtaining the appropriate error message based on the error code.
-                String errorMessage = mImageSearchingViewModel.getNetworkErrorMessages(errorCode);
-
-                // Prompt the user about network error.
-                Snackbar.make(mImageListRecyclerView, errorMessage, Snackbar.LENGTH_LONG).show();
-
-                if(mImageListPageNo == 1) {
-                    // hide the main progress bar, for the first page.
-                    mMainProgressBarView.setVisibility(View.GONE);
-                } else {
-                    // hide the pagination view.
-                    mImageRecyclerViewAdapter.removeLoadMoreViewFromList();
+            if (PageLoadState.STATUS_LOADED == pageLoadState.getStatus()) {
+                if (pageLoadState.isInitialLoad()) {
+                    // Hiding the soft input keyboard, if opened.
+                    AppUtils.hideKeyboard(ImageSearchListActivity.this, mSearchView);
                 }
+            } else {
+                // Obtaining the appropriate error message based on the error code.
+                String errorMessage = mImageSearchingViewModel.getNetworkErrorMessages(pageLoadState.getErrorCode());
 
-                // Resetting the Error observable to CODE_DEFAULT, to avoid unwanted live data updates.
-                mImageSearchingViewModel.getErrorObservable().setValue(CODE_DEFAULT);
+                // Prompt the user about network error, the failed page can be loaded again.
+                Snackbar.make(mImageListRecyclerView, errorMessage, Snackbar.LENGTH_LONG)
+                        .setAction(R.string.retry_action_text, view -> mImageSearchingViewModel.retrySearch())
+                        .show();
             }
         });
     }
@@ -176,86 +154,70 @@ public class ImageSearchListActivity extends BaseActivity {
     final private DebouncedQueryTextListener mOnQueryTextListener = new DebouncedQueryTextListener() {
         @Override
         public void onQueryDebounce(String queryText) {
-            if (null != queryText
-                    && ! queryText.trim().isEmpty()
-                    && ! mIsLoading) {
-
-                // Resetting the page no, so that the request will be considered as fresh request rather than load more.
-                mImageListPageNo = 1;
-
-                // Making the network call to fetch the results from remote for the given query.
-                clearExistingImageRecords();
-
-                // Making the network request for the very first time.
-                fetchImagesData(queryText);
-            }
+            searchQuery(queryText, false);
         }
-    };
 
-    final RecyclerView.OnScrollListener mImagesRecyclerViewOnScrollListener = new RecyclerView.OnScrollListener() {
         @Override
-        public void onScrollStateChanged(@NonNull RecyclerView recyclerView, int newState) {
-            super.onScrollStateChanged(recyclerView, newState);
+        public void onQuerySubmit(String queryText) {
+            searchQuery(queryText, true);
         }
+    };
 
-        @Override
-        public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
-            super.onScrolled(recyclerView, dx, dy);
-            Log.e("SCROLL", "On Scroll");
-
-            GridLayoutManager imagesGridLayoutManager = (GridLayoutManager) recyclerView.getLayoutManager();
-
-            if (dy > 0 && null != imagesGridLayoutManager) {
-
-                //total no. of items
-                int totalItemCount = imagesGridLayoutManager.getItemCount();
-
-                //last visible item position
-                int lastVisibleItem = imagesGridLayoutManager.findLastCompletelyVisibleItemPosition();
-
-                if (!mIsLoading) {
-                    int visibleThreshold = 5;
-                    if (totalItemCount <= (lastVisibleItem + visibleThreshold)) {
-
-                        // Scroll position reached at the end of the list, loading more events if available.
-                        mIsLoading = true;
-                        mImageListPageNo = mImageListPageNo + 1;
-
-                        mImageRecyclerViewAdapter.addLoadMoreViewToList(null);
+    /**
+     * To search the query typed by the user.
+     * @param isSubmitted true if the user submitted the query, submitting the displayed query again retries its failed load.
+     */
+    private void searchQuery (final String queryText, final boolean isSubmitted) {
+        if (null != queryText
+                && ! queryText.trim().isEmpty()) {
 
-                        recyclerView.post(() -> mImageRecyclerViewAdapter.notifyItemInserted(mImageRecyclerViewAdapter.getItemCount() - 1));
+            // Saving the scroll position of the previous query, restored if the user comes back to it.
+            mImageSearchingViewModel.saveScrollPosition(mImageRecyclerViewAdapter.getItemAtPosition(findFirstVisibleItemPosition()));
 
-                        // Making the paginated network request.
-                        String queryText = mSearchView.getQuery().toString().trim();
-                        fetchImagesData(queryText);
-                    }
-                }
+            // Searching the given query, the results of the previous query are replaced and their loads cancelled.
+            if (isSubmitted) {
+                mImageSearchingViewModel.submitSearch(queryText);
+            } else {
+                mImageSearchingViewModel.searchImages(queryText);
             }
         }
-    };
+    }
 
     /**
-     * Method to make the network request with the given keyword.
-     * @param queryString images data will be retrieved based on this query string.
+     * To scroll to the saved position of a recent query, if its item is displayed.
      */
-    private void fetchImagesData(final String queryString) {
-
-        if (1 == mImageListPageNo){
-            // Making the progress bar visible for the first page.
-            mMainProgressBarView.setVisibility(View.VISIBLE);
+    private void restoreScrollPosition () {
+        int scrollPosition = mImageRecyclerViewAdapter.findItemPosition(mImageSearchingViewModel.takePendingScrollPosition());
+        if (scrollPosition > 0) {
+            mGridLayoutManager.scrollToPosition(scrollPosition);
         }
-
-        // Proceeding to make the image search network request.
-        mImageSearchingViewModel.searchImages(mImageListPageNo, queryString);
     }
 
     /**
-     * Method to clear the grid recycler view records when there is a fresh search from search view.
+     * To find the position of the item on top of the grid or the staggered grid.
+     * @return RecyclerView.NO_POSITION if no item is visible.
      */
-    private void clearExistingImageRecords() {
-        if (null != mImageRecyclerViewAdapter && mImageRecyclerViewAdapter.getItemCount() > 0) {
-            mImageRecyclerViewAdapter.clearImagesList();
+    private int findFirstVisibleItemPosition () {
+        if (mGridLayoutManager instanceof LinearLayoutManager) {
+            return ((LinearLayoutManager) mGridLayoutManager).findFirstVisibleItemPosition();
+        } else if (mGridLayoutManager instanceof StaggeredGridLayoutManager) {
+            int firstVisiblePosition = RecyclerView.NO_POSITION;
+            for (int position : ((StaggeredGridLayoutManager) mGridLayoutManager).findFirstVisibleItemPositions(null)) {
+                if (RecyclerView.NO_POSITION != position
+                        && (RecyclerView.NO_POSITION == firstVisiblePosition || position < firstVisiblePosition)) {
+                    firstVisiblePosition = position;
+                }
+            }
+            return firstVisiblePosition;
         }
+        return RecyclerView.NO_POSITION;
+    }
+
+    @Override
+    protected void onDestroy() {
+        // Query typed last is dropped with the search field, it is searched again once restored.
+        mOnQueryTextListener.cancel();
+        super.onDestroy();
     }
 
     @Override
@@ -263,21 +225,99 @@ public class ImageSearchListActivity extends BaseActivity {
         super.onConfigurationChanged(newConfig);
 
         // Changing the grid recycler view columns at runtime when the configuration changes happens.
-        if (newConfig.orientation == Configuration.ORIENTATION_PORTRAIT) {
-            mGridLayoutManager = new WrapContentGridLayoutManager(ImageSearchListActivity.this, PORTRAIT_RECYCLER_VIEW_COL_SPAN);
+        setupGridLayoutManager(newConfig.orientation);
+    }
+
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        getMenuInflater().inflate(R.menu.menu_image_search_list, menu);
+        menu.findItem(R.id.action_staggered_grid).setChecked(mImageSearchingViewModel.isStaggeredGrid());
+        return true;
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(@NonNull MenuItem item) {
+
+        if (R.id.action_staggered_grid == item.getItemId()) {
+            // Switching between the square cells and the cells sized from the image aspect ratios.
+            boolean isStaggeredGrid = !item.isChecked();
+            item.setChecked(isStaggeredGrid);
+            mImageSearchingViewModel.setStaggeredGrid(isStaggeredGrid);
+            setupGridLayoutManager(getResources().getConfiguration().orientation);
+            return true;
         } else {
-            mGridLayoutManager = new WrapContentGridLayoutManager(ImageSearchListActivity.this, LANDSCAPE_RECYCLER_VIEW_COL_SPAN);
+            return super.onOptionsItemSelected(item);
         }
+    }
+
+    /**
+     * To set up the grid layout manager for the given orientation, as per the selected grid mode.
+     */
+    private void setupGridLayoutManager (final int orientation) {
+        int spanCount = Configuration.ORIENTATION_PORTRAIT == orientation
+                ? PORTRAIT_RECYCLER_VIEW_COL_SPAN
+                : LANDSCAPE_RECYCLER_VIEW_COL_SPAN;
+
+        boolean isStaggeredGrid = mImageSearchingViewModel.isStaggeredGrid();
+        if (isStaggeredGrid) {
+            StaggeredGridLayoutManager staggeredGridLayoutManager =
+                    new StaggeredGridLayoutManager(spanCount, StaggeredGridLayoutManager.VERTICAL);
+
+            // Cells are sized before binding, so the spans never need to be rebalanced while scrolling.
+            staggeredGridLayoutManager.setGapStrategy(StaggeredGridLayoutManager.GAP_HANDLING_NONE);
+            mGridLayoutManager = staggeredGridLayoutManager;
+        } else {
+            mGridLayoutManager = new WrapContentGridLayoutManager(ImageSearchListActivity.this, spanCount);
+        }
+
+        mImageRecyclerViewAdapter.setStaggeredGrid(isStaggeredGrid);
         mImageListRecyclerView.setLayoutManager(mGridLayoutManager);
+        updateGridCellSize(spanCount);
     }
 
+    /**
+     * To calculate the grid cell size for the given column span, based on it the thumbnail tier is selected.
+     */
+    private void updateGridCellSize (final int spanCount) {
+        int cellSizePx = getResources().getDisplayMetrics().widthPixels / spanCount;
+        mGridCellSizePx = cellSizePx;
+
+        mImageRecyclerViewAdapter.setCellSize(cellSizePx);
+        mImageSearchingViewModel.setGridCellSize(cellSizePx);
+
+        // Preloading the thumbnails for the next screen and a half, in the scroll direction.
+        int visibleRowCount = (int) Math.ceil((double) getResources().getDisplayMetrics().heightPixels / cellSizePx);
+        int maxPreloadCount = (int) Math.ceil(visibleRowCount * spanCount * PRELOAD_SCREEN_FACTOR);
+
+        if (null != mImagesPreloader) {
+            mImageListRecyclerView.removeOnScrollListener(mImagesPreloader);
+        }
+        mImagesPreloader = new GridPreloadScrollListener(Glide.with(this), mImageRecyclerViewAdapter,
+                mImageRecyclerViewAdapter, maxPreloadCount);
+        mImageListRecyclerView.addOnScrollListener(mImagesPreloader);
+    }
+
+    // Details screen is prepared on the press-down, and the preparation is cancelled if the press turns into a scroll.
+    final private RecyclerItemClickListener.OnItemPressListener mOnItemPressListener = new RecyclerItemClickListener.OnItemPressListener() {
+        @Override
+        public void onItemPressed(View view, int position) {
+            mImageSearchingViewModel.prefetchImageDetails(mImageRecyclerViewAdapter.getItemAtPosition(position),
+                    getResources().getDisplayMetrics().widthPixels);
+        }
+
+        @Override
+        public void onItemPressCancelled(int position) {
+            mImageSearchingViewModel.cancelImageDetailsPrefetch();
+        }
+    };
+
     /**
      * Utility method to make transition from image listing activity to image details activity.
      * @param position data will be captured from adapter based on click.
      */
     private void navigateToDetailActivity (final int position) {
         // Moving to detail activity, if the image data is present.
-        Data clickItemData = mImageRecyclerViewAdapter.getItemAtPosition(position);
+        ImageGridItem clickItemData = mImageRecyclerViewAdapter.getItemAtPosition(position);
 
         if (null != clickItemData) {
             String imageID = clickItemData.getId();
@@ -288,6 +328,15 @@ public class ImageSearchListActivity extends BaseActivity {
             navigationIntent.putExtra("imageTitle", imageTitle);
             navigationIntent.putExtra("imageID", imageID);
             navigationIntent.putExtra("imageURL", imageURL);
+
+            // Passing the position in search results, the details screen pages through them from it.
+            navigationIntent.putExtra("imagePosition", position);
+            mImageSearchingViewModel.publishSearchResultItems(mImageRecyclerViewAdapter.getCurrentItems());
+
+            // Passing the grid cell size, so that the decoded grid thumbnail is reused as placeholder on details screen.
+            navigationIntent.putExtra("gridCellSize", mGridCellSizePx);
+            navigationIntent.putExtra("isStaggeredGrid", mImageSearchingViewModel.isStaggeredGrid());
+            navigationIntent.putExtra("tapUptimeMillis", SystemClock.uptimeMillis());
             startActivity(navigationIntent);
         }
     }
@@ -295,9 +344,8 @@ public class ImageSearchListActivity extends BaseActivity {
     @Override
     public void onSaveInstanceState(@NonNull Bundle outState, @NonNull PersistableBundle outPersistentState) {
 
-        // Persisting the search box text and network request pending flag.
+        // Persisting the search box text.
         outPersistentState.putString("SEARCH_BOX_TEXT", mSearchView.getQuery().toString().trim());
-        outPersistentState.putBoolean("IS_NETWORK_REQUEST_PENDING", mIsLoading);
 
         super.onSaveInstanceState(outState, outPersistentState);
     }
@@ -309,7 +357,6 @@ public class ImageSearchListActivity extends BaseActivity {
         if (null != savedInstanceState) {
 
             String searchQuery = savedInstanceState.getString("SEARCH_BOX_TEXT");
-            mIsLoading = savedInstanceState.getBoolean("IS_NETWORK_REQUEST_PENDING");
 
             // Adding the query text to the search views.
             mSearchView.setQuery(searchQuery, false);
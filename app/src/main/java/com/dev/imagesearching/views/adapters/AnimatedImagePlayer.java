@@ -0,0 +1,175 @@
+package com.dev.imagesearching.views.adapters;
+
+import android.content.Context;
+import android.graphics.Matrix;
+import android.graphics.SurfaceTexture;
+import android.media.MediaPlayer;
+import android.net.Uri;
+import android.util.Log;
+import android.view.Surface;
+import android.view.TextureView;
+
+import java.io.IOException;
+
+import androidx.annotation.NonNull;
+
+/**
+ * (c) All rights reserved.
+ *
+ * Plays the mp4 rendition of an animated image in a loop, into the texture view of a details page.
+ *
+ * A single media player is shared by all the pages, so that only one animated image is decoded at a time.
+ * The texture view is kept transparent till the first video frame is rendered, so the still frame below it stays visible.
+ */
+class AnimatedImagePlayer implements TextureView.SurfaceTextureListener {
+
+    private static final String TAG = AnimatedImagePlayer.class.getSimpleName();
+
+    private final Context mContext;
+
+    private MediaPlayer mMediaPlayer;
+    private Surface mSurface;
+
+    // Texture view and video of the page being played.
+    private TextureView mTextureView;
+    private Uri mVideoUri;
+    private boolean mHasSound;
+
+    AnimatedImagePlayer(@NonNull final Context context) {
+        mContext = context;
+    }
+
+    /**
+     * To play the given video into the given texture view, the previous playback is stopped.
+     */
+    void play(@NonNull final TextureView textureView, @NonNull final Uri videoUri, final boolean hasSound) {
+        stop();
+
+        mTextureView = textureView;
+        mVideoUri = videoUri;
+        mHasSound = hasSound;
+
+        // Playback starts once the surface of the texture view is available.
+        mTextureView.setSurfaceTextureListener(this);
+        if (mTextureView.isAvailable()) {
+            startPlayback(mTextureView.getSurfaceTexture());
+        }
+    }
+
+    /**
+     * To stop the playback and release the decoder.
+     */
+    void stop() {
+        releasePlayer();
+
+        if (null != mTextureView) {
+            mTextureView.setSurfaceTextureListener(null);
+            mTextureView.setAlpha(0f);
+            mTextureView = null;
+        }
+        mVideoUri = null;
+    }
+
+    /**
+     * To check if the given texture view is being played into.
+     */
+    boolean isPlayingInto(final TextureView textureView) {
+        return null != textureView && textureView == mTextureView;
+    }
+
+    private void startPlayback(@NonNull final SurfaceTexture surfaceTexture) {
+        releasePlayer();
+
+        mSurface = new Surface(surfaceTexture);
+        mMediaPlayer = new MediaPlayer();
+        mMediaPlayer.setSurface(mSurface);
+        mMediaPlayer.setLooping(true);
+
+        // Animations without sound are played muted.
+        if (!mHasSound) {
+            mMediaPlayer.setVolume(0f, 0f);
+        }
+
+        mMediaPlayer.setOnPreparedListener(MediaPlayer::start);
+        mMediaPlayer.setOnVideoSizeChangedListener((mediaPlayer, videoWidth, videoHeight) ->
+                applyCenterInsideTransform(videoWidth, videoHeight));
+        mMediaPlayer.setOnInfoListener((mediaPlayer, what, extra) -> {
+            if (MediaPlayer.MEDIA_INFO_VIDEO_RENDERING_START == what && null != mTextureView) {
+                // First frame is rendered, the video can cover the still frame now.
+                mTextureView.setAlpha(1f);
+            }
+            return false;
+        });
+        mMediaPlayer.setOnErrorListener((mediaPlayer, what, extra) -> {
+            // Still frame stays displayed.
+            Log.e(TAG, "Unable to play " + mVideoUri + ", error: " + what);
+            stop();
+            return true;
+        });
+
+        try {
+            mMediaPlayer.setDataSource(mContext, mVideoUri);
+            mMediaPlayer.prepareAsync();
+        } catch (IOException | IllegalStateException e) {
+            e.printStackTrace();
+            stop();
+        }
+    }
+
+    /**
+     * Texture view stretches the video to its size, scaling it back to fit inside the view.
+     */
+    private void applyCenterInsideTransform(final int videoWidth, final int videoHeight) {
+        if (null == mTextureView || videoWidth <= 0 || videoHeight <= 0) {
+            return;
+        }
+
+        float viewWidth = mTextureView.getWidth();
+        float viewHeight = mTextureView.getHeight();
+        if (viewWidth <= 0 || viewHeight <= 0) {
+            return;
+        }
+
+        float fitScale = Math.min(viewWidth / videoWidth, viewHeight / videoHeight);
+        Matrix transform = new Matrix();
+        transform.setScale(videoWidth * fitScale / viewWidth, videoHeight * fitScale / viewHeight,
+                viewWidth / 2f, viewHeight / 2f);
+        mTextureView.setTransform(transform);
+    }
+
+    private void releasePlayer() {
+        if (null != mMediaPlayer) {
+            mMediaPlayer.release();
+            mMediaPlayer = null;
+        }
+        if (null != mSurface) {
+            mSurface.release();
+            mSurface = null;
+        }
+    }
+
+    @Override
+    public void onSurfaceTextureAvailable(@NonNull SurfaceTexture surfaceTexture, int width, int height) {
+        if (null != mVideoUri) {
+            startPlayback(surfaceTexture);
+        }
+    }
+
+    @Override
+    public void onSurfaceTextureSizeChanged(@NonNull SurfaceTexture surfaceTexture, int width, int height) {
+        if (null != mMediaPlayer) {
+            applyCenterInsideTransform(mMediaPlayer.getVideoWidth(), mMediaPlayer.getVideoHeight());
+        }
+    }
+
+    @Override
+    public boolean onSurfaceTextureDestroyed(@NonNull SurfaceTexture surfaceTexture) {
+        // Page is detached, the decoder is not needed anymore.
+        releasePlayer();
+        return true;
+    }
+
+    @Override
+    public void onSurfaceTextureUpdated(@NonNull SurfaceTexture surfaceTexture) {
+    }
+}
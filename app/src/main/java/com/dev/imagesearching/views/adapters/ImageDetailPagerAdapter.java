@@ -0,0 +1,351 @@
+package com.dev.imagesearching.views.adapters;
+
+import android.content.Context;
+import android.graphics.drawable.Drawable;
+import android.net.Uri;
+import android.view.LayoutInflater;
+import android.view.TextureView;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.target.CustomTarget;
+import com.bumptech.glide.request.target.Target;
+import com.bumptech.glide.request.transition.Transition;
+import com.davemorrissey.labs.subscaleview.ImageSource;
+import com.davemorrissey.labs.subscaleview.SubsamplingScaleImageView;
+import com.dev.imagesearching.R;
+import com.dev.imagesearching.models.ImageGridItem;
+import com.dev.imagesearching.utils.ImageRequestOptions;
+import com.dev.imagesearching.utils.ImgurImageUrlResolver;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.appcompat.widget.AppCompatImageView;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Adapter class : responsible to display the images of the search results as the pages of details screen.
+ *
+ * Every page is loaded progressively, the grid thumbnail from the memory cache first,
+ * then the preview and the detail tiers. The image of a recycled page is cleared, so that only the decoded bitmaps
+ * of the displayed page and its offscreen neighbours are held.
+ *
+ * Originals larger than the biggest resized tier are displayed zoomable, decoded tile by tile,
+ * i.e. only the visible region is decoded at the sample size of the current zoom, whatever the source resolution is.
+ * The original is downloaded for the active page only, the offscreen neighbours keep their detail tier.
+ *
+ * Animated images are displayed as their first frame, and the mp4 rendition is played only on the active page.
+ */
+public class ImageDetailPagerAdapter extends RecyclerView.Adapter<ImageDetailPagerAdapter.ImagePageViewHolder> {
+
+    /**
+     * Listener to know when the first image of the pager is displayed.
+     */
+    public interface OnFirstFrameListener {
+
+        /**
+         * Called once, for the first resource displayed by any page.
+         * @param isPlaceholder true if it is the cached grid thumbnail.
+         */
+        void onFirstFrame (ImageGridItem pageItem, boolean isPlaceholder);
+    }
+
+    private final Context mContext;
+    private final List<ImageGridItem> mPageItems = new ArrayList<>();
+
+    // Width of the grid cell and the grid mode, used to find the grid thumbnail in the memory cache.
+    private final int mGridCellSizePx;
+    private final boolean mIsStaggeredGrid;
+
+    // Width of the page in pixels, based on it the detail tier is selected.
+    private final int mPageWidthPx;
+
+    private OnFirstFrameListener mFirstFrameListener;
+
+    // Holders bound to a page, to find the holder of the active page.
+    private final Set<ImagePageViewHolder> mBoundHolders = new HashSet<>();
+
+    // Plays the animated image of the active page, one at a time.
+    private final AnimatedImagePlayer mAnimatedImagePlayer;
+
+    // Page displayed to the user, only its animated image is played.
+    private int mActivePosition = RecyclerView.NO_POSITION;
+
+    // Images having a side larger than the biggest resized tier (Imgur huge thumbnail) are decoded tile by tile.
+    private static final int TILED_DECODING_MIN_DIMENSION_PX = 1024;
+
+    // Density of the decoded tiles, higher densities of the screen are not worth the tile memory.
+    private static final int TILE_DECODING_DPI = 320;
+
+    public ImageDetailPagerAdapter (@NonNull final Context context, final int gridCellSizePx, final boolean isStaggeredGrid,
+                                    final int pageWidthPx) {
+        mContext = context;
+        mGridCellSizePx = gridCellSizePx;
+        mIsStaggeredGrid = isStaggeredGrid;
+        mPageWidthPx = pageWidthPx;
+        mAnimatedImagePlayer = new AnimatedImagePlayer(context.getApplicationContext());
+        setHasStableIds(true);
+    }
+
+    /**
+     * To set the items displayed as pages.
+     */
+    public void setPageItems (final List<ImageGridItem> pageItems) {
+        mPageItems.clear();
+        if (null != pageItems) {
+            mPageItems.addAll(pageItems);
+        }
+        notifyDataSetChanged();
+    }
+
+    public List<ImageGridItem> getPageItems () {
+        return mPageItems;
+    }
+
+    public ImageGridItem getItemAtPosition (int position) {
+        return position >= 0 && position < mPageItems.size() ? mPageItems.get(position) : null;
+    }
+
+    public void setOnFirstFrameListener (final OnFirstFrameListener firstFrameListener) {
+        mFirstFrameListener = firstFrameListener;
+    }
+
+    /**
+     * To set the page displayed to the user, its animated image is played and its large original is loaded.
+     * The animated image and the original of the previous page are released.
+     */
+    public void setActivePosition (final int position) {
+        mActivePosition = position;
+        mAnimatedImagePlayer.stop();
+
+        for (ImagePageViewHolder holder : mBoundHolders) {
+            if (holder.getAdapterPosition() == position) {
+                holder.playAnimatedImage(mPageItems.get(position));
+                holder.loadTiledImage(mPageItems.get(position));
+            } else {
+                // Cancelling the original download of the page swiped away from, it keeps its detail tier.
+                holder.releaseTiledImage();
+            }
+        }
+    }
+
+    /**
+     * To stop playing the animated image, e.g. when the screen is not visible anymore.
+     */
+    public void stopAnimatedImage () {
+        mAnimatedImagePlayer.stop();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return mPageItems.get(position).getStableId();
+    }
+
+    @Override
+    public int getItemCount() {
+        return mPageItems.size();
+    }
+
+    @NonNull
+    @Override
+    public ImagePageViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View pageView = LayoutInflater.from(parent.getContext()).inflate(R.layout.image_detail_pager_item, parent, false);
+        return new ImagePageViewHolder(pageView);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ImagePageViewHolder holder, int position) {
+        mBoundHolders.add(holder);
+        holder.bind(mPageItems.get(position));
+
+        if (position == mActivePosition) {
+            holder.playAnimatedImage(mPageItems.get(position));
+            holder.loadTiledImage(mPageItems.get(position));
+        }
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull ImagePageViewHolder holder) {
+        super.onViewRecycled(holder);
+
+        // Releasing the bitmaps of the page which is no longer displayed.
+        Glide.with(mContext).clear(holder.imageView);
+        holder.releaseTiledImage();
+
+        if (mAnimatedImagePlayer.isPlayingInto(holder.videoView)) {
+            mAnimatedImagePlayer.stop();
+        }
+        mBoundHolders.remove(holder);
+    }
+
+    class ImagePageViewHolder extends RecyclerView.ViewHolder {
+
+        AppCompatImageView imageView;
+        SubsamplingScaleImageView tiledImageView;
+        TextureView videoView;
+
+        // Download of the original image, which is decoded tile by tile once it is on disk.
+        private CustomTarget<File> mOriginalFileTarget;
+
+        ImagePageViewHolder(@NonNull View itemView) {
+            super(itemView);
+
+            // Find the views here.
+            imageView = itemView.findViewById(R.id.image_view_detail_page);
+            tiledImageView = itemView.findViewById(R.id.tiled_image_view_detail_page);
+            videoView = itemView.findViewById(R.id.video_view_detail_page);
+
+            tiledImageView.setMinimumTileDpi(TILE_DECODING_DPI);
+            tiledImageView.setMinimumScaleType(SubsamplingScaleImageView.SCALE_TYPE_CENTER_INSIDE);
+            tiledImageView.setOnImageEventListener(new SubsamplingScaleImageView.DefaultOnImageEventListener() {
+                @Override
+                public void onReady() {
+                    // Visible tiles are decoded, the progressive tiers are not needed anymore.
+                    tiledImageView.setVisibility(View.VISIBLE);
+                    Glide.with(mContext).clear(imageView);
+                }
+
+                @Override
+                public void onImageLoadError(Exception e) {
+                    // Keeping the detail tier displayed.
+                    tiledImageView.setVisibility(View.INVISIBLE);
+                }
+            });
+        }
+
+        void bind (final ImageGridItem pageItem) {
+            String coverID = pageItem.getCover();
+            releaseTiledImage();
+
+            // Selecting the tier which covers the page width, the tier below is displayed progressively till it arrives.
+            ImgurImageUrlResolver.ImgurImageSize detailImageSize = ImgurImageUrlResolver.selectDetailSize(mPageWidthPx);
+            ImgurImageUrlResolver.ImgurImageSize previewImageSize = ImgurImageUrlResolver.previousSize(detailImageSize);
+
+            // Requesting the grid thumbnail with the same options as grid, so that it is served from the memory cache.
+            RequestBuilder<Drawable> placeholderRequest = null;
+            if (mGridCellSizePx > 0) {
+                int gridCellHeightPx = mIsStaggeredGrid ? pageItem.getCellHeight(mGridCellSizePx) : mGridCellSizePx;
+                placeholderRequest = Glide.with(mContext)
+                        .load(ImgurImageUrlResolver.resolve(coverID, mGridCellSizePx, gridCellHeightPx))
+                        .apply(ImageRequestOptions.gridThumbnail(mGridCellSizePx, gridCellHeightPx))
+                        .onlyRetrieveFromCache(true)
+                        .listener(new FirstFrameRequestListener(pageItem, true));
+            }
+
+            // Details screen decodes the preview and detail tiers in full quality.
+            RequestBuilder<Drawable> previewRequest = null;
+            if (null != previewImageSize) {
+                previewRequest = Glide.with(mContext)
+                        .load(ImgurImageUrlResolver.buildUrl(coverID, previewImageSize))
+                        .apply(ImageRequestOptions.detailImage())
+                        .listener(new FirstFrameRequestListener(pageItem, false))
+                        .thumbnail(placeholderRequest);
+            }
+
+            Glide.with(mContext)
+                    .load(ImgurImageUrlResolver.buildUrl(coverID, detailImageSize))
+                    .apply(ImageRequestOptions.detailImage())
+                    .listener(new FirstFrameRequestListener(pageItem, false))
+                    .thumbnail(null != previewRequest ? previewRequest : placeholderRequest)
+                    .into(imageView);
+        }
+
+        /**
+         * To play the mp4 rendition over the still frame, if the image is animated.
+         */
+        void playAnimatedImage (final ImageGridItem pageItem) {
+            if (pageItem.isAnimated() && null != pageItem.getVideoUrl()) {
+                mAnimatedImagePlayer.play(videoView, Uri.parse(pageItem.getVideoUrl()), pageItem.hasSound());
+            }
+        }
+
+        /**
+         * To display the original image zoomable, decoded tile by tile from the disk cache, if the image is large.
+         * Called for the active page only, as the original is downloaded in full.
+         */
+        void loadTiledImage (final ImageGridItem pageItem) {
+            // Animated originals are GIFs, those are never decoded. The original may already be loading for this page.
+            if (pageItem.isAnimated() || !isLargeImage(pageItem) || null != mOriginalFileTarget) {
+                return;
+            }
+
+            String originalURL = ImgurImageUrlResolver.buildUrl(pageItem.getCover(), ImgurImageUrlResolver.ImgurImageSize.ORIGINAL);
+            if (null == originalURL) {
+                return;
+            }
+
+            mOriginalFileTarget = Glide.with(mContext)
+                    .downloadOnly()
+                    .load(originalURL)
+                    .into(new CustomTarget<File>() {
+                        @Override
+                        public void onResourceReady(@NonNull File originalFile, @Nullable Transition<? super File> transition) {
+                            tiledImageView.setImage(ImageSource.uri(Uri.fromFile(originalFile)));
+                        }
+
+                        @Override
+                        public void onLoadCleared(@Nullable Drawable placeholder) {
+                        }
+                    });
+        }
+
+        /**
+         * To cancel the original image download and release the decoded tiles.
+         */
+        void releaseTiledImage () {
+            if (null != mOriginalFileTarget) {
+                Glide.with(mContext).clear(mOriginalFileTarget);
+                mOriginalFileTarget = null;
+            }
+            tiledImageView.recycle();
+            tiledImageView.setVisibility(View.INVISIBLE);
+        }
+    }
+
+    /**
+     * To check if the original image is larger than the biggest resized tier.
+     */
+    private static boolean isLargeImage (@NonNull final ImageGridItem pageItem) {
+        return Math.max(pageItem.getCoverWidth(), pageItem.getCoverHeight()) > TILED_DECODING_MIN_DIMENSION_PX;
+    }
+
+    /**
+     * Notifies the first resource displayed by the pager, the listener is released afterwards.
+     */
+    private class FirstFrameRequestListener implements RequestListener<Drawable> {
+
+        private final ImageGridItem mPageItem;
+        private final boolean mIsPlaceholder;
+
+        FirstFrameRequestListener(final ImageGridItem pageItem, final boolean isPlaceholder) {
+            mPageItem = pageItem;
+            mIsPlaceholder = isPlaceholder;
+        }
+
+        @Override
+        public boolean onLoadFailed(@Nullable GlideException e, Object model, Target<Drawable> target, boolean isFirstResource) {
+            return false;
+        }
+
+        @Override
+        public boolean onResourceReady(Drawable resource, Object model, Target<Drawable> target, DataSource dataSource, boolean isFirstResource) {
+            if (null != mFirstFrameListener) {
+                OnFirstFrameListener firstFrameListener = mFirstFrameListener;
+                mFirstFrameListener = null;
+                firstFrameListener.onFirstFrame(mPageItem, mIsPlaceholder);
+            }
+            return false;
+        }
+    }
+}
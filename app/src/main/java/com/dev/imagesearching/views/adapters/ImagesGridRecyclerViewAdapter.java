@@ -9,41 +9,174 @@ import android.widget.ProgressBar;
 import android.widget.TextView;
 
 import com.bumptech.glide.Glide;
+import com.bumptech.glide.ListPreloader;
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.RequestBuilder;
 import com.dev.imagesearching.R;
-import com.dev.imagesearching.models.Data;
+import com.dev.imagesearching.models.ImageGridItem;
+import com.dev.imagesearching.utils.ImageRequestOptions;
+import com.dev.imagesearching.utils.ImgurImageUrlResolver;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.appcompat.widget.AppCompatImageView;
+import androidx.constraintlayout.widget.ConstraintLayout;
+import androidx.paging.AsyncPagedListDiffer;
+import androidx.paging.PagedList;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
-
-import static com.dev.imagesearching.utils.NetworkConstants.IMAGE_BASE_URL;
+import androidx.recyclerview.widget.StaggeredGridLayoutManager;
 
 /**
  * Adapter class : responsible to display images data into the grid recycler views.
+ *
+ * The paged list is diffed on a background thread, so that a page append is dispatched as range insert
+ * instead of rebinding all the visible cells. Binding an item lets the paged list load the pages around it.
+ * The paginated loading view is a footer, outside of the data list.
+ *
+ * It also provides the thumbnails to preload ahead of the scroll, visible cells are loaded with the high priority and
+ * the preloads with the low priority.
+ *
+ * In the staggered grid mode, the cell heights are derived from the known cover aspect ratios before binding,
+ * so the cells never resize when the image arrives, and the thumbnails are decoded exactly to the cell size.
  */
-public class ImagesGridRecyclerViewAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+public class ImagesGridRecyclerViewAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder>
+        implements ListPreloader.PreloadModelProvider<ImageGridItem>, ListPreloader.PreloadSizeProvider<ImageGridItem> {
 
-    private List<Data> mImagesDataList;
+    private final AsyncPagedListDiffer<ImageGridItem> mImagesDataDiffer;
     private Context mContext;
 
+    // Identify if the paginated loading view is displayed at the end of the grid.
+    private boolean mIsLoadingFooterVisible;
+
+    // Expected size of a grid cell in pixels, based on it the thumbnail tier is selected.
+    private int mCellSizePx;
+
+    // Identify if the cells are sized from the cover aspect ratios, instead of the square cells.
+    private boolean mIsStaggeredGrid;
+
+    // Aspect ratio of the square cells.
+    private static final String SQUARE_CELL_DIMENSION_RATIO = "H,1:1";
+
     public static final int VIEW_TYPE_IMAGE_LAYOUT = 0; // For images layout.
     public static final int VIEW_TYPE_LOADING = 1; // For the paginated loading view.
 
-    public ImagesGridRecyclerViewAdapter (@NonNull final Context context, @NonNull final List<Data> imagesDataList) {
-        mImagesDataList = imagesDataList;
+    // Item id of the paginated loading view, the ids derived from Imgur ids are never Long.MIN_VALUE.
+    private static final long LOADING_FOOTER_ITEM_ID = Long.MIN_VALUE;
+
+    // Items are identified by the stable id derived from the Imgur id, and are immutable.
+    private static final DiffUtil.ItemCallback<ImageGridItem> GRID_ITEM_DIFF_CALLBACK = new DiffUtil.ItemCallback<ImageGridItem>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull ImageGridItem oldItem, @NonNull ImageGridItem newItem) {
+            return oldItem.getStableId() == newItem.getStableId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull ImageGridItem oldItem, @NonNull ImageGridItem newItem) {
+            return oldItem == newItem
+                    || (TextUtils.equals(oldItem.getTitle(), newItem.getTitle())
+                    && TextUtils.equals(oldItem.getCoverUrl(), newItem.getCoverUrl()));
+        }
+    };
+
+    public ImagesGridRecyclerViewAdapter (@NonNull final Context context) {
         mContext = context;
+        mImagesDataDiffer = new AsyncPagedListDiffer<>(this, GRID_ITEM_DIFF_CALLBACK);
+        setHasStableIds(true);
+    }
+
+    /**
+     * To display the given paged list, the changes are computed against the current list on a background thread.
+     * @param imagesPagedList search results of the searched keyword.
+     */
+    public void submitList (final PagedList<ImageGridItem> imagesPagedList) {
+        mImagesDataDiffer.submitList(imagesPagedList);
+    }
+
+    /**
+     * To display the given paged list, and to run the given callback once it is displayed.
+     */
+    public void submitList (final PagedList<ImageGridItem> imagesPagedList, final Runnable commitCallback) {
+        mImagesDataDiffer.submitList(imagesPagedList, commitCallback);
+    }
+
+    /**
+     * To set the expected grid cell size, based on it the appropriate thumbnail tier is downloaded.
+     * @param cellSizePx width of a grid cell in pixels.
+     */
+    public void setCellSize (final int cellSizePx) {
+        mCellSizePx = cellSizePx;
+    }
+
+    /**
+     * To switch between the square cells and the cells sized from the cover aspect ratios.
+     */
+    public void setStaggeredGrid (final boolean isStaggeredGrid) {
+        mIsStaggeredGrid = isStaggeredGrid;
+    }
+
+    /**
+     * To get the height of the cell displaying the given item, for the given cell width.
+     */
+    private int getCellHeight (@NonNull final ImageGridItem gridItem, final int cellWidthPx) {
+        return mIsStaggeredGrid ? gridItem.getCellHeight(cellWidthPx) : cellWidthPx;
     }
 
     @Override
     public long getItemId(int position) {
-        return mImagesDataList.get(position).hashCode();
+        return isLoadingFooterPosition(position) ? LOADING_FOOTER_ITEM_ID : getCurrentList().get(position).getStableId();
     }
 
-    public Data getItemAtPosition (int position) {
-        return null != mImagesDataList ? mImagesDataList.get(position) : null;
+    /**
+     * To find the position of the item with the given stable id.
+     * @return RecyclerView.NO_POSITION if the item is not displayed.
+     */
+    public int findItemPosition (final long stableId) {
+        List<ImageGridItem> imagesDataList = getCurrentList();
+        for (int position = 0; position < imagesDataList.size(); position++) {
+            if (stableId == imagesDataList.get(position).getStableId()) {
+                return position;
+            }
+        }
+        return RecyclerView.NO_POSITION;
+    }
+
+    public ImageGridItem getItemAtPosition (int position) {
+        List<ImageGridItem> imagesDataList = getCurrentList();
+        return position >= 0 && position < imagesDataList.size() ? imagesDataList.get(position) : null;
+    }
+
+    @NonNull
+    @Override
+    public List<ImageGridItem> getPreloadItems(int position) {
+        ImageGridItem gridItem = getItemAtPosition(position);
+        return null == gridItem ? Collections.emptyList() : Collections.singletonList(gridItem);
+    }
+
+    @Nullable
+    @Override
+    public RequestBuilder<?> getPreloadRequestBuilder(@NonNull ImageGridItem gridItem) {
+        int cellHeightPx = getCellHeight(gridItem, mCellSizePx);
+        String imgURL = ImgurImageUrlResolver.resolve(gridItem.getCover(), mCellSizePx, cellHeightPx);
+        if (TextUtils.isEmpty(imgURL)) {
+            return null;
+        }
+
+        // Preloads must use the same options as the cells, so that the cells are served from the memory cache.
+        return Glide.with(mContext)
+                .load(imgURL)
+                .apply(ImageRequestOptions.gridThumbnail(mCellSizePx, cellHeightPx))
+                .priority(Priority.LOW);
+    }
+
+    @Nullable
+    @Override
+    public int[] getPreloadSize(@NonNull ImageGridItem gridItem, int adapterPosition, int perItemPosition) {
+        return mCellSizePx > 0 ? new int[] {mCellSizePx, getCellHeight(gridItem, mCellSizePx)} : null;
     }
 
     @NonNull
@@ -67,52 +200,71 @@ public class ImagesGridRecyclerViewAdapter extends RecyclerView.Adapter<Recycler
         // Displaying the image data.
         if (holder instanceof  ImageItemViewHolder) {
             ImageItemViewHolder imageItemViewHolder = (ImageItemViewHolder) holder;
-            imageItemViewHolder.bind(mImagesDataList.get(position));
+            // Getting the item through the differ, so that the next page is loaded before the end is reached.
+            imageItemViewHolder.bind(mImagesDataDiffer.getItem(position));
+        } else {
+            // Loading view takes the full width of the staggered grid.
+            ViewGroup.LayoutParams layoutParams = holder.itemView.getLayoutParams();
+            if (layoutParams instanceof StaggeredGridLayoutManager.LayoutParams) {
+                ((StaggeredGridLayoutManager.LayoutParams) layoutParams).setFullSpan(true);
+            }
+        }
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull RecyclerView.ViewHolder holder) {
+        super.onViewRecycled(holder);
+
+        // Cancelling the image load of the recycled cell, so that the image which is no longer needed is never decoded.
+        if (holder instanceof ImageItemViewHolder) {
+            Glide.with(mContext).clear(((ImageItemViewHolder) holder).imageView);
         }
     }
 
     @Override
     public int getItemCount() {
-        return null == mImagesDataList ? 0 : mImagesDataList.size();
+        return getCurrentList().size() + (mIsLoadingFooterVisible ? 1 : 0);
     }
 
     @Override
     public int getItemViewType(int position) {
-        return null == mImagesDataList.get(position) ? VIEW_TYPE_LOADING : VIEW_TYPE_IMAGE_LAYOUT;
+        return isLoadingFooterPosition(position) ? VIEW_TYPE_LOADING : VIEW_TYPE_IMAGE_LAYOUT;
     }
 
     /**
-     * Method to remove all the elements from grid recycler view.
+     * Method to add the load more view at the end of the grid recycler view.
      */
-    public void clearImagesList () {
-        if (null != mImagesDataList && !mImagesDataList.isEmpty()) {
-            mImagesDataList.clear();
-
-            // Notifying the data set changes to adapter, so that the result can be reflected properly.
-            notifyDataSetChanged();
+    public void showLoadingFooter () {
+        if (!mIsLoadingFooterVisible) {
+            mIsLoadingFooterVisible = true;
+            notifyItemInserted(getCurrentList().size());
         }
     }
 
     /**
-     * Method to add the load more view in the grid recycler view.
-     * @param item null item to be added
+     * Method to remove the loading paginated view from grid recycler view.
      */
-    public void addLoadMoreViewToList(final Data item) {
-        if (null == mImagesDataList) {
-            mImagesDataList = new ArrayList<>();
+    public void hideLoadingFooter () {
+        if (mIsLoadingFooterVisible) {
+            mIsLoadingFooterVisible = false;
+            notifyItemRemoved(getCurrentList().size());
         }
-
-        mImagesDataList.add(item);
     }
 
     /**
-     * Method to remove the loading paginated view from grid recycler view.
+     * To get the copy of the displayed items, which is not modified by the later page loads.
      */
-    public void removeLoadMoreViewFromList () {
-        if (null != mImagesDataList && !mImagesDataList.isEmpty()) {
-            mImagesDataList.remove(mImagesDataList.size() - 1);
-            notifyDataSetChanged();
-        }
+    public List<ImageGridItem> getCurrentItems () {
+        return new ArrayList<>(getCurrentList());
+    }
+
+    private List<ImageGridItem> getCurrentList () {
+        List<ImageGridItem> imagesDataList = mImagesDataDiffer.getCurrentList();
+        return null != imagesDataList ? imagesDataList : Collections.emptyList();
+    }
+
+    private boolean isLoadingFooterPosition (int position) {
+        return mIsLoadingFooterVisible && position == getCurrentList().size();
     }
 
     private static class LoadingViewHolder extends RecyclerView.ViewHolder {
@@ -139,7 +291,7 @@ public class ImagesGridRecyclerViewAdapter extends RecyclerView.Adapter<Recycler
             imageTitleTV = itemView.findViewById(R.id.tv_image_title);
         }
 
-        void bind (Data imageData) {
+        void bind (ImageGridItem imageData) {
 
             if (null != imageData) {
 
@@ -151,16 +303,39 @@ public class ImagesGridRecyclerViewAdapter extends RecyclerView.Adapter<Recycler
                     imageTitleTV.setText(imageTitle);
                 }
 
-                // Loading the image into view, if available.
-                String imgURL = imageData.getCover();
+                // Loading the smallest thumbnail tier which covers the cell, if available.
+                // Expected cell size is preferred, so that the url matches the prefetched thumbnails.
+                int cellSizePx = mCellSizePx > 0 ? mCellSizePx : imageView.getWidth();
+                int cellHeightPx = getCellHeight(imageData, cellSizePx);
+
+                // Sizing the cell before the image arrives, so that it is laid out only once.
+                applyCellDimensionRatio(cellSizePx, cellHeightPx);
+
+                String imgURL = ImgurImageUrlResolver.resolve(imageData.getCover(), cellSizePx, cellHeightPx);
                 if (!TextUtils.isEmpty(imgURL)) {
-                    imgURL = IMAGE_BASE_URL + imgURL + ".jpg";
+                    // Decoding with the low memory pixel format, downsampled to the cell size.
                     Glide.with(mContext)
                             .load(imgURL)
-                            .fitCenter()
+                            .apply(ImageRequestOptions.gridThumbnail(cellSizePx, cellHeightPx))
+                            .priority(Priority.HIGH)
                             .into(imageView);
                 }
             }
         }
+
+        /**
+         * To set the aspect ratio of the image view, the layout params are updated only if the ratio changes.
+         */
+        private void applyCellDimensionRatio (final int cellWidthPx, final int cellHeightPx) {
+            String dimensionRatio = mIsStaggeredGrid && cellWidthPx > 0 && cellHeightPx > 0
+                    ? "H," + cellWidthPx + ":" + cellHeightPx
+                    : SQUARE_CELL_DIMENSION_RATIO;
+
+            ConstraintLayout.LayoutParams imageLayoutParams = (ConstraintLayout.LayoutParams) imageView.getLayoutParams();
+            if (!dimensionRatio.equals(imageLayoutParams.dimensionRatio)) {
+                imageLayoutParams.dimensionRatio = dimensionRatio;
+                imageView.setLayoutParams(imageLayoutParams);
+            }
+        }
     }
 }
@@ -0,0 +1,100 @@
+package com.dev.imagesearching.api;
+
+import com.dev.imagesearching.models.Data;
+import com.dev.imagesearching.models.ImageDetails;
+import com.dev.imagesearching.models.ImagesResponse;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.util.List;
+import java.util.Map;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * (c) All rights reserved.
+ *
+ * Tests the projection of the album images in {@link ProjectedImagesResponseConverterFactory},
+ * only the details of the cover image are kept, whether the cover is listed before or after the images.
+ */
+public class ProjectedImagesResponseConverterFactoryTest {
+
+    @Test
+    public void coverBeforeImages_keepsOnlyCoverDetails() throws Exception {
+        Data album = convertSingleItem("{\"id\":\"album\",\"is_album\":true,\"cover\":\"b\",\"images\":["
+                + "{\"id\":\"a\",\"animated\":true,\"mp4\":\"https://i.imgur.com/a.mp4\"},"
+                + "{\"id\":\"b\",\"animated\":true,\"has_sound\":true,\"mp4\":\"https://i.imgur.com/b.mp4\"},"
+                + "{\"id\":\"c\",\"animated\":true,\"mp4\":\"https://i.imgur.com/c.mp4\"}]}");
+
+        assertCoverDetails(album.getImages(), "b", "https://i.imgur.com/b.mp4");
+        assertEquals(Boolean.TRUE, album.getImages().get(0).getHasSound());
+    }
+
+    @Test
+    public void coverBeforeImages_idAfterOtherFields_keepsOnlyCoverDetails() throws Exception {
+        Data album = convertSingleItem("{\"id\":\"album\",\"is_album\":true,\"cover\":\"b\",\"images\":["
+                + "{\"animated\":true,\"mp4\":\"https://i.imgur.com/a.mp4\",\"id\":\"a\"},"
+                + "{\"animated\":true,\"mp4\":\"https://i.imgur.com/b.mp4\",\"id\":\"b\"}]}");
+
+        assertCoverDetails(album.getImages(), "b", "https://i.imgur.com/b.mp4");
+    }
+
+    @Test
+    public void imagesBeforeCover_findsAnimatedCoverDetails() throws Exception {
+        Data album = convertSingleItem("{\"id\":\"album\",\"is_album\":true,\"images\":["
+                + "{\"id\":\"a\",\"animated\":false},"
+                + "{\"id\":\"b\",\"animated\":true,\"mp4\":\"https://i.imgur.com/b.mp4\"},"
+                + "{\"id\":\"c\",\"animated\":true,\"mp4\":\"https://i.imgur.com/c.mp4\"}],\"cover\":\"c\"}");
+
+        assertCoverDetails(album.getImages(), "c", "https://i.imgur.com/c.mp4");
+    }
+
+    @Test
+    public void imagesBeforeCover_stillCover_hasNoDetails() throws Exception {
+        Data album = convertSingleItem("{\"id\":\"album\",\"is_album\":true,\"images\":["
+                + "{\"id\":\"a\",\"animated\":false},"
+                + "{\"id\":\"b\",\"animated\":true,\"mp4\":\"https://i.imgur.com/b.mp4\"}],\"cover\":\"a\"}");
+
+        assertNull(album.getImages());
+    }
+
+    @Test
+    public void singleImage_isItsOwnCover() throws Exception {
+        Data image = convertSingleItem("{\"id\":\"single\",\"is_album\":false,\"animated\":true,"
+                + "\"mp4\":\"https://i.imgur.com/single.mp4\",\"width\":640,\"height\":480}");
+
+        assertEquals("single", image.getCover());
+        assertEquals(Integer.valueOf(640), image.getCoverWidth());
+        assertCoverDetails(image.getImages(), "single", "https://i.imgur.com/single.mp4");
+    }
+
+    private static void assertCoverDetails(List<ImageDetails> imageDetailsList, String coverID, String mp4) {
+        assertEquals(1, imageDetailsList.size());
+        assertEquals(coverID, imageDetailsList.get(0).getId());
+        assertEquals(mp4, imageDetailsList.get(0).getMp4());
+    }
+
+    private static Data convertSingleItem(String itemJson) throws IOException, NoSuchMethodException {
+        Annotation[] annotations = RemoteApiInterface.class
+                .getMethod("getImagesList", Map.class, int.class, String.class).getAnnotations();
+        Retrofit retrofit = new Retrofit.Builder().baseUrl("https://api.imgur.com/").build();
+
+        @SuppressWarnings("unchecked")
+        Converter<ResponseBody, ImagesResponse> converter = (Converter<ResponseBody, ImagesResponse>)
+                ProjectedImagesResponseConverterFactory.create().responseBodyConverter(ImagesResponse.class, annotations, retrofit);
+
+        ImagesResponse imagesResponse = converter.convert(ResponseBody.create(MediaType.parse("application/json"),
+                "{\"data\":[" + itemJson + "],\"success\":true,\"status\":200}"));
+
+        assertEquals(1, imagesResponse.getDataList().size());
+        return imagesResponse.getDataList().get(0);
+    }
+}
@@ -0,0 +1,246 @@
+package com.dev.imagesearching.api;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.Request;
+import okio.Timeout;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * (c) All rights reserved.
+ *
+ * Tests the coalescing of the identical in-flight calls, see {@link SingleFlightCallGroup}.
+ */
+public class SingleFlightCallGroupTest {
+
+    private final SingleFlightCallGroup<String> mCallGroup = new SingleFlightCallGroup<>();
+
+    // Calls created by the factory, in the order they are created.
+    private final List<FakeCall> mCreatedCalls = new ArrayList<>();
+
+    private final SingleFlightCallGroup.CallFactory<String> mCallFactory = () -> {
+        FakeCall call = new FakeCall();
+        synchronized (mCreatedCalls) {
+            mCreatedCalls.add(call);
+        }
+        return call;
+    };
+
+    @Test
+    public void identicalRequests_shareSingleCall() {
+        RecordingCallback firstCallback = new RecordingCallback();
+        RecordingCallback secondCallback = new RecordingCallback();
+
+        assertTrue(mCallGroup.execute("cats#1", mCallFactory, firstCallback));
+        assertFalse(mCallGroup.execute("cats#1", mCallFactory, secondCallback));
+        assertEquals(1, mCreatedCalls.size());
+
+        mCreatedCalls.get(0).succeed("page");
+
+        assertEquals(1, firstCallback.mResponses.size());
+        assertEquals(1, secondCallback.mResponses.size());
+        assertSame(firstCallback.mResponses.get(0), secondCallback.mResponses.get(0));
+        assertEquals(1L, mCallGroup.getIssuedCallCount());
+        assertEquals(1L, mCallGroup.getCoalescedCallCount());
+    }
+
+    @Test
+    public void differentKeys_issueSeparateCalls() {
+        assertTrue(mCallGroup.execute("cats#1", mCallFactory, new RecordingCallback()));
+        assertTrue(mCallGroup.execute("cats#2", mCallFactory, new RecordingCallback()));
+
+        assertEquals(2, mCreatedCalls.size());
+        assertEquals(0L, mCallGroup.getCoalescedCallCount());
+    }
+
+    @Test
+    public void sameCallback_isNotifiedOnce() {
+        RecordingCallback callback = new RecordingCallback();
+
+        mCallGroup.execute("cats#1", mCallFactory, callback);
+        mCallGroup.execute("cats#1", mCallFactory, callback);
+        mCreatedCalls.get(0).succeed("page");
+
+        assertEquals(1, callback.mResponses.size());
+    }
+
+    @Test
+    public void finishedCall_isNotShared() {
+        mCallGroup.execute("cats#1", mCallFactory, new RecordingCallback());
+        mCreatedCalls.get(0).succeed("page");
+
+        assertFalse(mCallGroup.isInFlight("cats#1"));
+        assertTrue(mCallGroup.execute("cats#1", mCallFactory, new RecordingCallback()));
+        assertEquals(2, mCreatedCalls.size());
+    }
+
+    @Test
+    public void failure_reachesEveryAttachedCallback() {
+        RecordingCallback firstCallback = new RecordingCallback();
+        RecordingCallback secondCallback = new RecordingCallback();
+        IOException error = new IOException("timeout");
+
+        mCallGroup.execute("cats#1", mCallFactory, firstCallback);
+        mCallGroup.execute("cats#1", mCallFactory, secondCallback);
+        mCreatedCalls.get(0).fail(error);
+
+        assertEquals(1, firstCallback.mFailures.size());
+        assertSame(error, firstCallback.mFailures.get(0));
+        assertEquals(1, secondCallback.mFailures.size());
+        assertSame(error, secondCallback.mFailures.get(0));
+        assertTrue(firstCallback.mResponses.isEmpty());
+        assertFalse(mCallGroup.isInFlight("cats#1"));
+    }
+
+    @Test
+    public void cancelledCall_isReplacedByFreshCall() {
+        RecordingCallback cancelledCallback = new RecordingCallback();
+        mCallGroup.execute("cats#1", mCallFactory, cancelledCallback);
+        mCallGroup.cancel("cats#1");
+
+        assertTrue(mCreatedCalls.get(0).isCanceled());
+        assertEquals(1, cancelledCallback.mFailures.size());
+
+        RecordingCallback freshCallback = new RecordingCallback();
+        assertTrue(mCallGroup.execute("cats#1", mCallFactory, freshCallback));
+
+        // Late response of the cancelled call must not complete the fresh one.
+        mCreatedCalls.get(0).succeed("stale page");
+        assertTrue(mCallGroup.isInFlight("cats#1"));
+        assertTrue(freshCallback.mResponses.isEmpty());
+
+        mCreatedCalls.get(1).succeed("page");
+        assertEquals("page", freshCallback.mResponses.get(0).body());
+    }
+
+    @Test
+    public void concurrentRequests_areCoalesced() throws InterruptedException {
+        final int threadCount = 16;
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final CountDownLatch doneLatch = new CountDownLatch(threadCount);
+        final AtomicInteger issuedCount = new AtomicInteger();
+        final List<RecordingCallback> callbacks = new ArrayList<>();
+
+        for (int index = 0; index < threadCount; index++) {
+            final RecordingCallback callback = new RecordingCallback();
+            callbacks.add(callback);
+
+            new Thread(() -> {
+                try {
+                    startLatch.await();
+                    if (mCallGroup.execute("cats#1", mCallFactory, callback)) {
+                        issuedCount.incrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    doneLatch.countDown();
+                }
+            }).start();
+        }
+
+        startLatch.countDown();
+        assertTrue(doneLatch.await(5, TimeUnit.SECONDS));
+
+        assertEquals(1, issuedCount.get());
+        assertEquals(1, mCreatedCalls.size());
+        assertEquals(threadCount - 1, mCallGroup.getCoalescedCallCount());
+
+        mCreatedCalls.get(0).succeed("page");
+        for (RecordingCallback callback : callbacks) {
+            assertEquals(1, callback.mResponses.size());
+        }
+    }
+
+    /**
+     * Callback which records what it is notified with.
+     */
+    private static class RecordingCallback implements Callback<String> {
+
+        final List<Response<String>> mResponses = new ArrayList<>();
+        final List<Throwable> mFailures = new ArrayList<>();
+
+        @Override
+        public void onResponse(Call<String> call, Response<String> response) {
+            mResponses.add(response);
+        }
+
+        @Override
+        public void onFailure(Call<String> call, Throwable t) {
+            mFailures.add(t);
+        }
+    }
+
+    /**
+     * Call which completes only when the test asks it to, on the test thread.
+     * Cancelling it fails the enqueued callback, same as the Retrofit calls.
+     */
+    private static class FakeCall implements Call<String> {
+
+        private Callback<String> mCallback;
+        private boolean mIsCanceled;
+
+        void succeed(final String body) {
+            mCallback.onResponse(this, Response.success(body));
+        }
+
+        void fail(final Throwable error) {
+            mCallback.onFailure(this, error);
+        }
+
+        @Override
+        public Response<String> execute() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void enqueue(Callback<String> callback) {
+            mCallback = callback;
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return null != mCallback;
+        }
+
+        @Override
+        public void cancel() {
+            mIsCanceled = true;
+            fail(new IOException("Canceled"));
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return mIsCanceled;
+        }
+
+        @Override
+        public Call<String> clone() {
+            return new FakeCall();
+        }
+
+        @Override
+        public Request request() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Timeout timeout() {
+            return Timeout.NONE;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.dev.imagesearching.models;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * (c) All rights reserved.
+ *
+ * Tests the stable ids derived from the Imgur ids, see {@link ImageGridItem#toStableId(String)}.
+ */
+public class ImageGridItemStableIdTest {
+
+    @Test
+    public void emptyId_isZero() {
+        assertEquals(0L, ImageGridItem.toStableId(null));
+        assertEquals(0L, ImageGridItem.toStableId(""));
+    }
+
+    @Test
+    public void base62Id_isDecoded() {
+        assertEquals(1L, ImageGridItem.toStableId("0"));
+        assertEquals(62L, ImageGridItem.toStableId("Z"));
+        assertEquals(125L, ImageGridItem.toStableId("10"));
+    }
+
+    @Test
+    public void longestBase62Id_isPositive() {
+        assertTrue(ImageGridItem.toStableId("ZZZZZZZZZZ") > 0L);
+    }
+
+    @Test
+    public void distinctBase62Ids_neverCollide() {
+        // Same characters in a different order, the ids differing only in the case and the leading zeros.
+        String[] imgurIds = {"abc", "acb", "bac", "ABC", "aBc", "0abc", "00abc", "abc0", "a", "A", "0", "00"};
+
+        Set<Long> stableIds = new HashSet<>();
+        for (String imgurId : imgurIds) {
+            assertTrue(imgurId, stableIds.add(ImageGridItem.toStableId(imgurId)));
+        }
+    }
+
+    @Test
+    public void hashedIds_areNegative_andNeverMinValue() {
+        // Too long to be decoded, or having the characters out of the base62 alphabet.
+        String[] imgurIds = {"ZZZZZZZZZZZ", "abcdefghijk", "abc-def", "a_b", "h\u00e9llo", " "};
+
+        for (String imgurId : imgurIds) {
+            long stableId = ImageGridItem.toStableId(imgurId);
+            assertTrue(imgurId, stableId < 0L);
+            assertNotEquals(imgurId, Long.MIN_VALUE, stableId);
+        }
+    }
+
+    @Test
+    public void manyIds_neverCollide_norReturnMinValue() {
+        Set<Long> stableIds = new HashSet<>();
+        for (int index = 0; index < 100000; index++) {
+            long decodedId = ImageGridItem.toStableId(Integer.toString(index, 36));
+            long hashedId = ImageGridItem.toStableId("id-" + index);
+
+            assertNotEquals(Long.MIN_VALUE, decodedId);
+            assertNotEquals(Long.MIN_VALUE, hashedId);
+            assertTrue(stableIds.add(decodedId));
+            assertTrue(stableIds.add(hashedId));
+        }
+    }
+
+    @Test
+    public void sameId_isStable() {
+        assertEquals(ImageGridItem.toStableId("x-y-z"), ImageGridItem.toStableId("x-y-z"));
+        assertEquals(ImageGridItem.toStableId("aB3dE9f"), ImageGridItem.toStableId("aB3dE9f"));
+    }
+}
@@ -0,0 +1,127 @@
+package com.dev.imagesearching.repositories;
+
+import com.dev.imagesearching.db.entities.SearchResultItemEntity;
+import com.dev.imagesearching.models.Data;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * (c) All rights reserved.
+ *
+ * Tests the matching of the loaded images against a refined query, see {@link QueryRefinementFilter}.
+ */
+public class QueryRefinementFilterTest {
+
+    private final Data mSleepingCat = image("1", "Cat sleeping on the sofa", null);
+    private final Data mKitten = image("2", "My new kitten", "She is a tiny cat");
+    private final Data mDog = image("3", "Dog at the beach", null, "dogs", "Summer-Fun");
+    private final Data mCats = image("4", "Cats!", null);
+
+    private final List<Data> mLoadedImages = Arrays.asList(mSleepingCat, mKitten, mDog, mCats);
+
+    @Test
+    public void narrowerQuery_isRefinement() {
+        assertTrue(QueryRefinementFilter.isRefinement("cat", "cats"));
+        assertTrue(QueryRefinementFilter.isRefinement("cat", "cat sleeping"));
+    }
+
+    @Test
+    public void widerOrDifferentQuery_isNotRefinement() {
+        assertFalse(QueryRefinementFilter.isRefinement("cats", "cat"));
+        assertFalse(QueryRefinementFilter.isRefinement("cat sleeping", "cat"));
+        assertFalse(QueryRefinementFilter.isRefinement("cat", "cat"));
+        assertFalse(QueryRefinementFilter.isRefinement("cat", "dog"));
+        assertFalse(QueryRefinementFilter.isRefinement("cat", "a cat"));
+    }
+
+    @Test
+    public void missingPreviousQuery_isNotRefinement() {
+        assertFalse(QueryRefinementFilter.isRefinement(null, "cat"));
+        assertFalse(QueryRefinementFilter.isRefinement("", "cat"));
+    }
+
+    @Test
+    public void terms_matchWordPrefixes() {
+        assertEquals(Arrays.asList(mSleepingCat, mKitten, mCats), QueryRefinementFilter.findMatches(mLoadedImages, "cat", 10));
+        assertEquals(Collections.singletonList(mCats), QueryRefinementFilter.findMatches(mLoadedImages, "cats", 10));
+
+        // Terms match only the start of a word, "at" is inside "cat" but only the dog's title has the word "at".
+        assertEquals(Collections.singletonList(mDog), QueryRefinementFilter.findMatches(mLoadedImages, "at", 10));
+    }
+
+    @Test
+    public void narrowerQuery_matchesEveryTerm() {
+        assertEquals(Collections.singletonList(mSleepingCat), QueryRefinementFilter.findMatches(mLoadedImages, "cat sleep", 10));
+        assertTrue(QueryRefinementFilter.findMatches(mLoadedImages, "cat beach", 10).isEmpty());
+    }
+
+    @Test
+    public void descriptionAndTags_areMatched() {
+        assertEquals(Collections.singletonList(mKitten), QueryRefinementFilter.findMatches(mLoadedImages, "tiny", 10));
+        assertEquals(Collections.singletonList(mDog), QueryRefinementFilter.findMatches(mLoadedImages, "summer fun", 10));
+    }
+
+    @Test
+    public void section_isMatched() {
+        Data awwImage = image("5", "Sleepy", null);
+        awwImage.setSection("aww");
+        List<Data> loadedImages = new ArrayList<>(mLoadedImages);
+        loadedImages.add(awwImage);
+
+        assertEquals(Collections.singletonList(awwImage), QueryRefinementFilter.findMatches(loadedImages, "aww sleep", 10));
+    }
+
+    @Test
+    public void imagesOfCachedPage_matchDescriptionAndTags() {
+        SearchResultItemEntity itemEntity = new SearchResultItemEntity();
+        itemEntity.setImageID("6");
+        itemEntity.setTitle("Untitled");
+        itemEntity.setDescription("A tiny puppy");
+        itemEntity.setTags("dogs Summer-Fun");
+        List<Data> cachedImages = Collections.singletonList(Data.fromStoredGridItem(itemEntity));
+
+        assertEquals(cachedImages, QueryRefinementFilter.findMatches(cachedImages, "tiny pup", 10));
+        assertEquals(cachedImages, QueryRefinementFilter.findMatches(cachedImages, "summer fun", 10));
+    }
+
+    @Test
+    public void punctuationOfQuery_isIgnored() {
+        assertEquals(Collections.singletonList(mDog), QueryRefinementFilter.findMatches(mLoadedImages, "summer-fun!", 10));
+        assertTrue(QueryRefinementFilter.findMatches(mLoadedImages, "!!", 10).isEmpty());
+        assertTrue(QueryRefinementFilter.findMatches(mLoadedImages, "", 10).isEmpty());
+    }
+
+    @Test
+    public void matches_areLimited_inLoadedOrder() {
+        assertEquals(Arrays.asList(mSleepingCat, mKitten), QueryRefinementFilter.findMatches(mLoadedImages, "cat", 2));
+    }
+
+    @Test
+    public void missingImagesAndFields_areSkipped() {
+        List<Data> loadedImages = new ArrayList<>(mLoadedImages);
+        loadedImages.add(null);
+        loadedImages.add(image("5", null, null));
+
+        assertEquals(Arrays.asList(mSleepingCat, mKitten, mCats), QueryRefinementFilter.findMatches(loadedImages, "cat", 10));
+    }
+
+    private static Data image(final String id, final String title, final String description, final Object... tags) {
+        Data imageData = new Data();
+        imageData.setId(id);
+        imageData.setTitle(title);
+        imageData.setDescription(description);
+        if (tags.length > 0) {
+            imageData.setTags(Arrays.asList(tags));
+        }
+        return imageData;
+    }
+}
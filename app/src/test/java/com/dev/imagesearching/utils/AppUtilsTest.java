@@ -0,0 +1,72 @@
+package com.dev.imagesearching.utils;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * (c) All rights reserved.
+ *
+ * Tests the normalization of the search queries, see {@link AppUtils#normalizeSearchQuery(String)}.
+ */
+public class AppUtilsTest {
+
+    @Test
+    public void nullQuery_isEmpty() {
+        assertEquals("", AppUtils.normalizeSearchQuery(null));
+    }
+
+    @Test
+    public void emptyQuery_isEmpty() {
+        assertEquals("", AppUtils.normalizeSearchQuery(""));
+    }
+
+    @Test
+    public void whitespaceQuery_isEmpty() {
+        assertEquals("", AppUtils.normalizeSearchQuery("   "));
+        assertEquals("", AppUtils.normalizeSearchQuery(" \t\n "));
+    }
+
+    @Test
+    public void equivalentQueries_areSame() {
+        assertEquals("cats", AppUtils.normalizeSearchQuery(" Cats  "));
+        assertEquals("cats", AppUtils.normalizeSearchQuery("CATS"));
+        assertEquals("cats sleeping", AppUtils.normalizeSearchQuery("cats   Sleeping"));
+        assertEquals("cats sleeping", AppUtils.normalizeSearchQuery("\tcats\nsleeping "));
+    }
+
+    @Test
+    public void differentQueries_stayDifferent() {
+        assertEquals("cats-sleeping", AppUtils.normalizeSearchQuery("Cats-Sleeping"));
+        assertEquals("cat s", AppUtils.normalizeSearchQuery("cat s"));
+    }
+
+    @Test
+    public void lowercasing_isLocaleIndependent() {
+        Locale defaultLocale = Locale.getDefault();
+        try {
+            // Turkish locale lowercases "I" to the dotless i.
+            Locale.setDefault(new Locale("tr", "TR"));
+            assertEquals("title", AppUtils.normalizeSearchQuery("TITLE"));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    public void text_isSplitIntoNormalizedWords() {
+        assertEquals(Arrays.asList("cats", "sleeping"), AppUtils.tokenizeSearchText(" Cats-Sleeping! "));
+        assertEquals(Arrays.asList("caf\u00e9", "2020"), AppUtils.tokenizeSearchText("Caf\u00c9 (2020)"));
+    }
+
+    @Test
+    public void emptyText_hasNoWords() {
+        assertEquals(Collections.emptyList(), AppUtils.tokenizeSearchText(null));
+        assertEquals(Collections.emptyList(), AppUtils.tokenizeSearchText("   "));
+        assertEquals(Collections.emptyList(), AppUtils.tokenizeSearchText("*-!"));
+    }
+}
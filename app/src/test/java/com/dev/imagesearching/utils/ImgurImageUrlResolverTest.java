@@ -0,0 +1,79 @@
+package com.dev.imagesearching.utils;
+
+import com.dev.imagesearching.utils.ImgurImageUrlResolver.ImgurImageSize;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * (c) All rights reserved.
+ *
+ * Tests the selection of the Imgur size tiers, see {@link ImgurImageUrlResolver}.
+ */
+public class ImgurImageUrlResolverTest {
+
+    @Test
+    public void unmeasuredTarget_selectsOriginal() {
+        assertEquals(ImgurImageSize.ORIGINAL, ImgurImageUrlResolver.selectSize(0, 0, false));
+        assertEquals(ImgurImageSize.ORIGINAL, ImgurImageUrlResolver.selectSize(-1, 0, true));
+    }
+
+    @Test
+    public void proportionalTiers_coverTargetAtBoundaries() {
+        assertEquals(ImgurImageSize.SMALL_THUMBNAIL, ImgurImageUrlResolver.selectSize(1, 1, false));
+        assertEquals(ImgurImageSize.SMALL_THUMBNAIL, ImgurImageUrlResolver.selectSize(160, 100, false));
+        assertEquals(ImgurImageSize.MEDIUM_THUMBNAIL, ImgurImageUrlResolver.selectSize(161, 100, false));
+        assertEquals(ImgurImageSize.MEDIUM_THUMBNAIL, ImgurImageUrlResolver.selectSize(320, 320, false));
+        assertEquals(ImgurImageSize.LARGE_THUMBNAIL, ImgurImageUrlResolver.selectSize(321, 10, false));
+        assertEquals(ImgurImageSize.LARGE_THUMBNAIL, ImgurImageUrlResolver.selectSize(640, 640, false));
+        assertEquals(ImgurImageSize.HUGE_THUMBNAIL, ImgurImageUrlResolver.selectSize(641, 641, false));
+        assertEquals(ImgurImageSize.HUGE_THUMBNAIL, ImgurImageUrlResolver.selectSize(1024, 768, false));
+        assertEquals(ImgurImageSize.ORIGINAL, ImgurImageUrlResolver.selectSize(1025, 768, false));
+    }
+
+    @Test
+    public void tallerTarget_isCoveredByItsHeight() {
+        assertEquals(ImgurImageSize.LARGE_THUMBNAIL, ImgurImageUrlResolver.selectSize(100, 500, false));
+    }
+
+    @Test
+    public void squareCrop_selectsSquareTiers_thenOriginal() {
+        assertEquals(ImgurImageSize.SMALL_SQUARE, ImgurImageUrlResolver.selectSize(90, 90, true));
+        assertEquals(ImgurImageSize.BIG_SQUARE, ImgurImageUrlResolver.selectSize(91, 91, true));
+        assertEquals(ImgurImageSize.BIG_SQUARE, ImgurImageUrlResolver.selectSize(160, 160, true));
+
+        // No square tier covers it, the proportional thumbnails are never used for a square crop.
+        assertEquals(ImgurImageSize.ORIGINAL, ImgurImageUrlResolver.selectSize(161, 161, true));
+    }
+
+    @Test
+    public void detailSize_coversScreenWidth() {
+        assertEquals(ImgurImageSize.HUGE_THUMBNAIL, ImgurImageUrlResolver.selectDetailSize(1024));
+        assertEquals(ImgurImageSize.ORIGINAL, ImgurImageUrlResolver.selectDetailSize(1080));
+    }
+
+    @Test
+    public void previousSize_skipsSquareTiers() {
+        assertEquals(ImgurImageSize.HUGE_THUMBNAIL, ImgurImageUrlResolver.previousSize(ImgurImageSize.ORIGINAL));
+        assertEquals(ImgurImageSize.LARGE_THUMBNAIL, ImgurImageUrlResolver.previousSize(ImgurImageSize.HUGE_THUMBNAIL));
+        assertNull(ImgurImageUrlResolver.previousSize(ImgurImageSize.SMALL_THUMBNAIL));
+        assertNull(ImgurImageUrlResolver.previousSize(ImgurImageSize.SMALL_SQUARE));
+    }
+
+    @Test
+    public void urls_carryTierSuffix() {
+        assertEquals("https://i.imgur.com/abc123m.jpg", ImgurImageUrlResolver.buildUrl("abc123", ImgurImageSize.MEDIUM_THUMBNAIL));
+        assertEquals("https://i.imgur.com/abc123.jpg", ImgurImageUrlResolver.buildUrl("abc123", ImgurImageSize.ORIGINAL));
+        assertEquals("https://i.imgur.com/abc123.mp4", ImgurImageUrlResolver.buildVideoUrl("abc123"));
+        assertEquals("https://i.imgur.com/abc123l.jpg", ImgurImageUrlResolver.resolve("abc123", 600, 400));
+    }
+
+    @Test
+    public void missingImageId_hasNoUrl() {
+        assertNull(ImgurImageUrlResolver.buildUrl(null, ImgurImageSize.ORIGINAL));
+        assertNull(ImgurImageUrlResolver.buildUrl("", ImgurImageSize.ORIGINAL));
+        assertNull(ImgurImageUrlResolver.buildVideoUrl(""));
+    }
+}